@@ -16,27 +16,110 @@ FLUSH PRIVILEGES;
 -- Use the database
 USE payment_api;
 
--- Tables will be created automatically by Hibernate
--- But here's the schema for reference:
+-- Tables will be created automatically by Hibernate (default profile) or by the Flyway
+-- migrations in src/main/resources/db/migration/mysql (prod profile), which are the reference
+-- for column types. Here's the schema for reference:
 
 /*
 CREATE TABLE IF NOT EXISTS payments (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
     zip_code VARCHAR(20) NOT NULL,
+    search_key VARCHAR(100),
     card_number_encrypted VARCHAR(500) NOT NULL,
     card_number_masked VARCHAR(20) NOT NULL,
+    card_fingerprint VARCHAR(64),
+    status VARCHAR(20) NOT NULL DEFAULT 'CREATED',
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_card_fingerprint (card_fingerprint),
+    INDEX idx_tenant_created_at (tenant_id, created_at),
+    INDEX idx_tenant_search_created (tenant_id, search_key, created_at, id, zip_code)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+CREATE TABLE IF NOT EXISTS payments_archive (
+    id BIGINT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    zip_code VARCHAR(20) NOT NULL,
+    card_number_encrypted VARCHAR(500) NOT NULL,
+    card_number_masked VARCHAR(20) NOT NULL,
+    card_fingerprint VARCHAR(64),
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    INDEX idx_archive_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 ROW_FORMAT=COMPRESSED;
+
 CREATE TABLE IF NOT EXISTS webhooks (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
     url VARCHAR(500) NOT NULL,
     description VARCHAR(255),
     active BOOLEAN NOT NULL DEFAULT TRUE,
+    connect_timeout_ms INT,
+    read_timeout_ms INT,
+    max_retry_attempts INT,
+    initial_retry_delay_ms INT,
+    max_concurrency INT,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_active (active)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
-*/
\ No newline at end of file
+
+CREATE TABLE IF NOT EXISTS payment_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    payment_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_events_tenant_id (tenant_id, id),
+    INDEX idx_events_created_at (created_at, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS webhook_deliveries (
+    payment_id BIGINT NOT NULL,
+    webhook_id BIGINT NOT NULL,
+    tenant_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    delivered_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (payment_id, webhook_id),
+    INDEX idx_deliveries_delivered_at (delivered_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS payment_rollups (
+    tenant_id VARCHAR(64) NOT NULL,
+    bucket_hour DATETIME(6) NOT NULL,
+    zip_prefix VARCHAR(5) NOT NULL,
+    payment_count BIGINT NOT NULL,
+    PRIMARY KEY (tenant_id, bucket_hour, zip_prefix)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+*/
+
+-- One-time backfill of search_key (GET /api/payments/search) for payments created before it
+-- existed; mirrors SearchKeys.lastName. Repeat until it updates no rows to keep each batch short.
+/*
+UPDATE payments SET search_key = LOWER(REGEXP_REPLACE(last_name, '[^A-Za-z]', ''))
+WHERE search_key IS NULL
+LIMIT 10000;
+*/
+
+-- Optional: month-based partitioning of payments (enable payment.partitioning.enabled).
+-- MySQL requires the partitioning column in every unique key, so the primary key becomes
+-- (id, created_at). created_at must be DATETIME for RANGE COLUMNS, which is what Hibernate
+-- generates. Name partitions pYYYYMM; PaymentPartitionService splits pmax ahead of time and
+-- drops partitions once the archival job has emptied them.
+/*
+ALTER TABLE payments
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE payments PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+*/
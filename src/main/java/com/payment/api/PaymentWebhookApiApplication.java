@@ -2,14 +2,21 @@ package com.payment.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class PaymentWebhookApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(PaymentWebhookApiApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(PaymentWebhookApiApplication.class, args);
+		// Training run for the class data sharing archive (mvn -Pappcds package): stop once started
+		if (Boolean.getBoolean("payment.startup.exit-after-start")) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
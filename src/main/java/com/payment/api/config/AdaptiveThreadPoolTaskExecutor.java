@@ -0,0 +1,122 @@
+package com.payment.api.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size thread pool whose thread count and queue capacity can be changed while it runs,
+ * and which measures how long tasks wait in the queue and how long they run. Core and max pool
+ * size are kept equal so the pool size is exactly what {@link #resize} last set, instead of
+ * growing past core only once the queue is full.
+ */
+public class AdaptiveThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    private volatile ResizableQueue queue;
+
+    public AdaptiveThreadPoolTaskExecutor() {
+        setTaskDecorator(null);
+    }
+
+    /**
+     * Applies the given decorator inside the executor's own timing wrapper
+     */
+    @Override
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        super.setTaskDecorator(runnable -> {
+            Runnable decorated = taskDecorator != null ? taskDecorator.decorate(runnable) : runnable;
+            long enqueuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                queueWaitNanos.add(startedAt - enqueuedAt);
+                try {
+                    decorated.run();
+                } finally {
+                    runNanos.add(System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            };
+        });
+    }
+
+    @Override
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        queue = new ResizableQueue(queueCapacity);
+        return queue;
+    }
+
+    /**
+     * Sets the pool size and queue capacity. Shrinking the queue never drops queued tasks; new
+     * submissions are refused until it drains below the new capacity.
+     */
+    public synchronized void resize(int threads, int queueCapacity) {
+        if (threads > getMaxPoolSize()) {
+            setMaxPoolSize(threads);
+            setCorePoolSize(threads);
+        } else {
+            setCorePoolSize(threads);
+            setMaxPoolSize(threads);
+        }
+        setQueueCapacity(queueCapacity);
+        if (queue != null) {
+            queue.capacity = queueCapacity;
+        }
+    }
+
+    public int getQueueLimit() {
+        return queue != null ? queue.capacity : 0;
+    }
+
+    public int getQueuedTasks() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Returns the counts accumulated since the previous call and starts a new interval
+     */
+    public Sample sample() {
+        return new Sample(completed.sumThenReset(), queue != null ? queue.refused.sumThenReset() : 0,
+            queueWaitNanos.sumThenReset(), runNanos.sumThenReset());
+    }
+
+    /**
+     * Task counts and total times for one sampling interval
+     */
+    public record Sample(long completed, long refused, long queueWaitNanos, long runNanos) {
+    }
+
+    /**
+     * Unbounded LinkedBlockingQueue with a soft, adjustable limit enforced on offer(), the only
+     * method ThreadPoolExecutor uses to enqueue. Concurrent offers may overshoot it by a few tasks.
+     */
+    private static final class ResizableQueue extends LinkedBlockingQueue<Runnable> {
+
+        private volatile int capacity;
+        private final LongAdder refused = new LongAdder();
+
+        ResizableQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(Runnable task) {
+            if (size() >= capacity) {
+                refused.increment();
+                return false;
+            }
+            return super.offer(task);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+    }
+}
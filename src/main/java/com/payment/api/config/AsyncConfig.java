@@ -1,24 +1,80 @@
 package com.payment.api.config;
 
+import com.payment.api.service.PaymentMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Starts at the configured size; WebhookExecutorSizer resizes it at runtime
+     */
     @Bean(name = "webhookExecutor")
-    public Executor webhookExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
+    public AdaptiveThreadPoolTaskExecutor webhookExecutor(
+            PaymentMetrics paymentMetrics,
+            @Value("${webhook.executor.threads:5}") int threads,
+            @Value("${webhook.executor.queue-capacity:100}") int queueCapacity) {
+        AdaptiveThreadPoolTaskExecutor executor = new AdaptiveThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("webhook-");
+        executor.setRejectedExecutionHandler(countingAbortPolicy("webhookExecutor", paymentMetrics));
+        executor.setTaskDecorator(new MdcTaskDecorator());
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Bounded pool for the payment create path, sized independently of the Tomcat worker pool.
+     * At most pool-size + queue-capacity creates are in flight; beyond that requests are rejected.
+     */
+    @Bean(name = "persistenceExecutor")
+    public Executor persistenceExecutor(
+            PaymentMetrics paymentMetrics,
+            @Value("${payment.persistence.pool-size:10}") int poolSize,
+            @Value("${payment.persistence.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("persistence-");
+        executor.setRejectedExecutionHandler(countingAbortPolicy("persistenceExecutor", paymentMetrics));
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for long-running maintenance passes over the payments table (re-encryption, backfills)
+     */
+    @Bean(name = "backgroundJobExecutor")
+    public Executor backgroundJobExecutor(@Value("${payment.jobs.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Same as the default AbortPolicy, but counts the rejection first. Active threads and queue
+     * depth of these executors are published by Spring Boot's executor metrics.
+     */
+    private static RejectedExecutionHandler countingAbortPolicy(String name, PaymentMetrics paymentMetrics) {
+        return (task, pool) -> {
+            paymentMetrics.recordRejection(name);
+            throw new RejectedExecutionException("Task " + task + " rejected from " + name);
+        };
+    }
+}
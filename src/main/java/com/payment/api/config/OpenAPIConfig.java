@@ -7,10 +7,15 @@ import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.servers.Server;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import java.util.List;
 
+/**
+ * API documentation, built on the first request for /v3/api-docs rather than at startup
+ */
 @Configuration
+@Lazy
 public class OpenAPIConfig {
 
     @Bean
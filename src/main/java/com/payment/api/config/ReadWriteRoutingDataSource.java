@@ -0,0 +1,81 @@
+package com.payment.api.config;
+
+import com.payment.api.util.TenantIds;
+import org.slf4j.MDC;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes connections for read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup happens after the transaction's
+ * read-only flag has been bound, i.e. on the first statement rather than at transaction begin.
+ * <p>
+ * Read-your-writes is scoped to the caller, the tenant that RequestIdFilter puts in the MDC (and
+ * MdcTaskDecorator carries to async executors): after a caller's write, that caller's reads stay
+ * on the primary for the window so a lagging replica cannot hide the write, while everyone
+ * else's reads keep using the replica. Work outside a request has no caller and is not tracked.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    // Above this many callers, entries whose window has passed are dropped on the next write
+    private static final int MAX_TRACKED_CALLERS = 10_000;
+
+    private final long readYourWritesWindowMillis;
+
+    private final Map<String, Long> lastWriteByCaller = new ConcurrentHashMap<>();
+
+    /**
+     * @param readYourWritesWindowMillis how long after a caller's write that caller's reads stay on
+     *                                   the primary; 0 disables
+     */
+    public ReadWriteRoutingDataSource(long readYourWritesWindowMillis) {
+        this.readYourWritesWindowMillis = readYourWritesWindowMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String caller = MDC.get(TenantIds.MDC_KEY);
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (caller != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite(caller);
+            }
+            return Route.PRIMARY;
+        }
+        if (caller != null && readYourWritesWindowMillis > 0) {
+            Long lastWriteAt = lastWriteByCaller.get(caller);
+            if (lastWriteAt != null && System.currentTimeMillis() - lastWriteAt < readYourWritesWindowMillis) {
+                return Route.PRIMARY;
+            }
+        }
+        return Route.REPLICA;
+    }
+
+    private void recordWrite(String caller) {
+        if (readYourWritesWindowMillis <= 0) {
+            return;
+        }
+        if (lastWriteByCaller.size() >= MAX_TRACKED_CALLERS) {
+            long expired = System.currentTimeMillis() - readYourWritesWindowMillis;
+            lastWriteByCaller.values().removeIf(lastWriteAt -> lastWriteAt <= expired);
+        }
+        lastWriteByCaller.put(caller, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Restart the window at commit so long transactions are covered too
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWriteByCaller.put(caller, System.currentTimeMillis());
+                }
+            });
+        }
+    }
+}
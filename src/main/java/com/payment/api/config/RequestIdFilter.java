@@ -0,0 +1,93 @@
+package com.payment.api.config;
+
+import com.payment.api.util.TenantIds;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Assigns every request a correlation ID, taken from the caller's X-Request-Id header when it is
+ * well-formed and generated otherwise. The ID is echoed in the response, put in the MDC as
+ * "requestId" for log lines, and carried to async executors by {@link MdcTaskDecorator}.
+ * <p>
+ * Callers may reuse a request ID, so the MDC also carries "traceId", which the server generates
+ * for every request and which keys anything that must belong to exactly one request. The calling
+ * tenant, when the X-Tenant-Id header is absent or valid, is put in the MDC as "tenantId" so work
+ * can be scoped to the caller wherever it runs.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+    public static final String TRACE_MDC_KEY = "traceId";
+
+    private static final String ATTRIBUTE = RequestIdFilter.class.getName() + ".requestId";
+    private static final String TRACE_ATTRIBUTE = RequestIdFilter.class.getName() + ".traceId";
+    private static final int MAX_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Async dispatches of the same request reuse the IDs chosen on the first pass
+        String requestId = (String) request.getAttribute(ATTRIBUTE);
+        String traceId = (String) request.getAttribute(TRACE_ATTRIBUTE);
+        if (requestId == null) {
+            requestId = isValid(request.getHeader(HEADER)) ? request.getHeader(HEADER) : UUID.randomUUID().toString();
+            traceId = UUID.randomUUID().toString();
+            request.setAttribute(ATTRIBUTE, requestId);
+            request.setAttribute(TRACE_ATTRIBUTE, traceId);
+            response.setHeader(HEADER, requestId);
+        }
+
+        MDC.put(MDC_KEY, requestId);
+        MDC.put(TRACE_MDC_KEY, traceId);
+        // An invalid header is rejected by the controller; no caller is recorded for it
+        String tenantId = request.getHeader(TenantIds.HEADER);
+        if (tenantId == null) {
+            MDC.put(TenantIds.MDC_KEY, TenantIds.DEFAULT_TENANT);
+        } else if (TenantIds.isValid(tenantId)) {
+            MDC.put(TenantIds.MDC_KEY, tenantId);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+            MDC.remove(TRACE_MDC_KEY);
+            MDC.remove(TenantIds.MDC_KEY);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /**
+     * Caller-supplied IDs end up in logs and partner requests, so only short tokens are accepted
+     */
+    static boolean isValid(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
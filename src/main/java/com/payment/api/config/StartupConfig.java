@@ -0,0 +1,21 @@
+package com.payment.api.config;
+
+import com.payment.api.util.EncryptionUtil;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans created at startup even when spring.main.lazy-initialization is on (prod profile).
+ * Scheduled jobs stay eager on their own, and with them the repositories and the
+ * EntityManagerFactory, so schema validation still runs at boot; the encryption keys are
+ * loaded eagerly so a missing or wrong key fails the boot rather than the first payment.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(EncryptionUtil.class);
+    }
+}
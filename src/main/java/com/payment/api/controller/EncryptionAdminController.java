@@ -0,0 +1,89 @@
+package com.payment.api.controller;
+
+import com.payment.api.dto.JobStatusDTO;
+import com.payment.api.service.CardFingerprintBackfillService;
+import com.payment.api.service.CardReEncryptionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/encryption")
+@RequiredArgsConstructor
+@Tag(name = "Encryption Admin", description = "Key rotation and re-encryption APIs")
+public class EncryptionAdminController {
+
+    private final CardReEncryptionService cardReEncryptionService;
+    private final CardFingerprintBackfillService cardFingerprintBackfillService;
+
+    @PostMapping("/re-encryption")
+    @Operation(
+        summary = "Start re-encryption",
+        description = "Rewrites every stored card number that is not yet under the active key, in the background"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Re-encryption started",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobStatusDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "A re-encryption pass is already running",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobStatusDTO.class))
+        )
+    })
+    public ResponseEntity<JobStatusDTO> startReEncryption() {
+        boolean started = cardReEncryptionService.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+            .body(cardReEncryptionService.getStatus());
+    }
+
+    @GetMapping("/re-encryption")
+    @Operation(
+        summary = "Get re-encryption progress",
+        description = "Returns the state and row counts of the current or last re-encryption pass"
+    )
+    public ResponseEntity<JobStatusDTO> getReEncryptionStatus() {
+        return ResponseEntity.ok(cardReEncryptionService.getStatus());
+    }
+
+    @PostMapping("/fingerprint-backfill")
+    @Operation(
+        summary = "Start card fingerprint backfill",
+        description = "Computes the card fingerprint for every payment that does not have one yet, in the background"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Backfill started",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobStatusDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "A backfill pass is already running",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = JobStatusDTO.class))
+        )
+    })
+    public ResponseEntity<JobStatusDTO> startFingerprintBackfill() {
+        boolean started = cardFingerprintBackfillService.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+            .body(cardFingerprintBackfillService.getStatus());
+    }
+
+    @GetMapping("/fingerprint-backfill")
+    @Operation(
+        summary = "Get fingerprint backfill progress",
+        description = "Returns the state and row counts of the current or last fingerprint backfill pass"
+    )
+    public ResponseEntity<JobStatusDTO> getFingerprintBackfillStatus() {
+        return ResponseEntity.ok(cardFingerprintBackfillService.getStatus());
+    }
+}
@@ -0,0 +1,72 @@
+package com.payment.api.controller;
+
+import com.payment.api.dto.ErrorResponse;
+import com.payment.api.dto.EventFeedDTO;
+import com.payment.api.service.PaymentEventFeed;
+import com.payment.api.util.TenantIds;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Tag(name = "Events", description = "Pull-based payment event feed")
+public class EventController {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final long MAX_WAIT_MS = 60_000;
+
+    private final PaymentEventFeed paymentEventFeed;
+
+    @GetMapping
+    @Operation(
+        summary = "Poll payment events",
+        description = "Returns the tenant's payment events after the cursor, oldest first, carrying the same "
+            + "payloads as webhooks. When there are none the request is held for up to waitMs and answered as "
+            + "soon as an event arrives, or with an empty batch. Send nextCursor with the following poll; "
+            + "omit the cursor to start from the newest event."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "A batch of events, empty if none arrived within waitMs",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = EventFeedDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor, limit or waitMs",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public DeferredResult<EventFeedDTO> pollEvents(
+            @Parameter(description = "nextCursor from the previous poll")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Maximum number of events to return (1-1000)")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "How long to wait for an event when there are none (0-60000 ms)")
+            @RequestParam(defaultValue = "30000") long waitMs,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+
+        if (cursor != null && cursor < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (waitMs < 0 || waitMs > MAX_WAIT_MS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "waitMs must be between 0 and " + MAX_WAIT_MS);
+        }
+        return paymentEventFeed.poll(TenantIds.resolve(tenantId), cursor, limit, waitMs);
+    }
+}
@@ -0,0 +1,69 @@
+package com.payment.api.controller;
+
+import com.payment.api.dto.ErrorResponse;
+import com.payment.api.dto.ExecutorSizingDTO;
+import com.payment.api.service.WebhookExecutorSizer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/admin/executors")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Executor Admin", description = "Thread pool sizing APIs")
+public class ExecutorAdminController {
+
+    private final WebhookExecutorSizer webhookExecutorSizer;
+
+    @GetMapping("/webhook")
+    @Operation(
+        summary = "Get webhook executor sizing",
+        description = "Returns the current thread count, queue capacity, sizing bounds and the observations "
+            + "from the last adjustment interval"
+    )
+    public ResponseEntity<ExecutorSizingDTO> getWebhookExecutorSizing() {
+        return ResponseEntity.ok(webhookExecutorSizer.getSizing());
+    }
+
+    @PutMapping("/webhook")
+    @Operation(
+        summary = "Override webhook executor sizing",
+        description = "Resizes the webhook executor immediately and suspends adaptive sizing until it is resumed"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Executor resized",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ExecutorSizingDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid thread count or queue capacity",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<ExecutorSizingDTO> overrideWebhookExecutorSizing(
+            @Valid @RequestBody ExecutorSizingDTO.OverrideRequest request) {
+        return ResponseEntity.ok(webhookExecutorSizer.override(request.getThreads(), request.getQueueCapacity()));
+    }
+
+    @DeleteMapping("/webhook/override")
+    @Operation(
+        summary = "Resume adaptive sizing",
+        description = "Drops a manual override; the next adjustment interval resizes from observed load again"
+    )
+    public ResponseEntity<ExecutorSizingDTO> resumeAdaptiveSizing() {
+        return ResponseEntity.ok(webhookExecutorSizer.resumeAdaptive());
+    }
+}
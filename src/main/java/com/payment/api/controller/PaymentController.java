@@ -2,8 +2,18 @@ package com.payment.api.controller;
 
 import com.payment.api.dto.ErrorResponse;
 import com.payment.api.dto.PaymentDTO;
+import com.payment.api.dto.PaymentSearchDTO;
+import com.payment.api.dto.PaymentStatsDTO;
+import com.payment.api.dto.PaymentTraceDTO;
+import com.payment.api.service.PaymentExportService;
+import com.payment.api.service.PaymentRollupService;
 import com.payment.api.service.PaymentService;
+import com.payment.api.service.PaymentTracer;
+import com.payment.api.util.PaymentRequestValidator;
+import com.payment.api.util.TenantIds;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,12 +21,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -25,7 +46,25 @@ import javax.validation.Valid;
 @Tag(name = "Payments", description = "Payment management APIs")
 public class PaymentController {
 
+    private static final int MAX_LOOKUP_LIMIT = 1000;
+    private static final long MAX_STATS_DAYS = 366;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final Pattern ZIP_PREFIX = Pattern.compile("^[0-9]{1,5}(-[0-9]{0,4})?$");
+
     private final PaymentService paymentService;
+    private final PaymentExportService paymentExportService;
+    private final PaymentRequestValidator paymentRequestValidator;
+    private final PaymentTracer paymentTracer;
+    private final PaymentRollupService paymentRollupService;
+
+    /**
+     * Validates create requests with the hand-written validator instead of Bean Validation;
+     * it reports the same messages plus a Luhn check on the card number
+     */
+    @InitBinder("createRequest")
+    public void initCreateRequestBinder(WebDataBinder binder) {
+        binder.setValidator(paymentRequestValidator);
+    }
 
     @PostMapping
     @Operation(
@@ -72,6 +111,23 @@ public class PaymentController {
                 """)
             )
         ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many payments in flight, retry later",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class),
+                examples = @ExampleObject(value = """
+                    {
+                        "timestamp": "2026-02-02T10:30:00",
+                        "status": 503,
+                        "error": "Service Unavailable",
+                        "message": "Server is busy, please retry",
+                        "path": "/api/payments"
+                    }
+                """)
+            )
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error",
@@ -90,10 +146,325 @@ public class PaymentController {
             )
         )
     })
-    public ResponseEntity<PaymentDTO.Response> createPayment(
-            @Valid @RequestBody PaymentDTO.CreateRequest request) {
+    public CompletableFuture<ResponseEntity<PaymentDTO.Response>> createPayment(
+            @Valid @RequestBody PaymentDTO.CreateRequest request,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
         
-        PaymentDTO.Response response = paymentService.createPayment(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return paymentService.createPaymentAsync(TenantIds.resolve(tenantId), request)
+            .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @PostMapping("/lookup-by-card")
+    @Operation(
+        summary = "Find payments by card",
+        description = "Returns the most recent payments made with the given card number, newest first. "
+            + "The card number is sent in the body so it never appears in URLs or access logs."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Matching payments, possibly empty",
+            content = @Content(
+                mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = PaymentDTO.Response.class))
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid card number",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public ResponseEntity<List<PaymentDTO.Response>> lookupByCard(
+            @Valid @RequestBody PaymentDTO.CardLookupRequest request,
+            @Parameter(description = "Maximum number of payments to return (1-1000)")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+
+        if (limit < 1 || limit > MAX_LOOKUP_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LOOKUP_LIMIT);
+        }
+        String tenant = TenantIds.resolve(tenantId);
+        return ResponseEntity.ok(paymentService.findPaymentsByCard(tenant, request.getCardNumber(), limit));
+    }
+
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search payments",
+        description = "Finds payments by last name (case, spaces, hyphens and apostrophes ignored), optionally "
+            + "narrowed to a zip-code prefix and a createdAt range, newest first. Send nextCursor as cursor to "
+            + "get the next page; it is null on the last page."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "A page of matching payments, possibly empty",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentSearchDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid last name, zip prefix, date range, cursor or limit",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<PaymentSearchDTO> searchPayments(
+            @Parameter(description = "Last name to match")
+            @RequestParam(required = false) String lastName,
+            @Parameter(description = "Leading digits of the zip code, e.g. 123 or 12345-67")
+            @RequestParam(required = false) String zipPrefix,
+            @Parameter(description = "Inclusive lower bound on createdAt, e.g. 2026-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive upper bound on createdAt, e.g. 2026-03-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "nextCursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of payments to return (1-100)")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+
+        if (lastName == null || lastName.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lastName is required");
+        }
+        // Digits and the 5+4 hyphen only, so the prefix cannot carry LIKE wildcards
+        if (zipPrefix != null && !ZIP_PREFIX.matcher(zipPrefix).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "zipPrefix must be the start of a zip code");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        String tenant = TenantIds.resolve(tenantId);
+        return ResponseEntity.ok(paymentService.searchPayments(tenant, lastName, zipPrefix, from, to, cursor, limit));
+    }
+
+    @GetMapping("/{id}/trace")
+    @Operation(
+        summary = "Get payment trace",
+        description = "Returns the request ID and stage timings (validation, encryption, insert, webhook attempts) "
+            + "recorded for a recently created payment"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Trace found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentTraceDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "No trace retained for this payment, or the payment belongs to another tenant",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<PaymentTraceDTO> getPaymentTrace(
+            @Parameter(description = "Payment ID") @PathVariable Long id,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        return paymentTracer.getTrace(TenantIds.resolve(tenantId), id)
+            .map(ResponseEntity::ok)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No trace found for payment " + id));
+    }
+
+    @PostMapping("/{id}/authorize")
+    @Operation(
+        summary = "Authorize payment",
+        description = "Moves a CREATED payment to AUTHORIZED. Notifies the tenant's webhooks with a PAYMENT_AUTHORIZED event."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Payment authorized",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentDTO.Response.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Payment not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Payment is not CREATED",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<PaymentDTO.Response> authorizePayment(
+            @Parameter(description = "Payment ID") @PathVariable Long id,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        return ResponseEntity.ok(paymentService.authorizePayment(TenantIds.resolve(tenantId), id));
+    }
+
+    @PostMapping("/{id}/capture")
+    @Operation(
+        summary = "Capture payment",
+        description = "Moves an AUTHORIZED payment to CAPTURED. Notifies the tenant's webhooks with a PAYMENT_CAPTURED event."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Payment captured",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentDTO.Response.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Payment not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Payment is not AUTHORIZED",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<PaymentDTO.Response> capturePayment(
+            @Parameter(description = "Payment ID") @PathVariable Long id,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        return ResponseEntity.ok(paymentService.capturePayment(TenantIds.resolve(tenantId), id));
+    }
+
+    @PostMapping("/{id}/refund")
+    @Operation(
+        summary = "Refund payment",
+        description = "Moves a CAPTURED payment to REFUNDED. Notifies the tenant's webhooks with a PAYMENT_REFUNDED event."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Payment refunded",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentDTO.Response.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Payment not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Payment is not CAPTURED",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<PaymentDTO.Response> refundPayment(
+            @Parameter(description = "Payment ID") @PathVariable Long id,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        return ResponseEntity.ok(paymentService.refundPayment(TenantIds.resolve(tenantId), id));
+    }
+
+    @GetMapping("/stats")
+    @Operation(
+        summary = "Get payment counts",
+        description = "Returns payment counts per hour or per zip-code prefix for [from, to), defaulting to the "
+            + "last 24 hours. Served from incrementally maintained rollups; payments made before rollups "
+            + "were enabled are not counted."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Counts by bucket",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaymentStatsDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid grouping or date range",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<PaymentStatsDTO> getPaymentStats(
+            @Parameter(description = "hour or zipPrefix")
+            @RequestParam(defaultValue = "hour") String groupBy,
+            @Parameter(description = "Inclusive lower bound, rounded down to the hour, e.g. 2026-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive upper bound, rounded down to the hour, e.g. 2026-02-02T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+
+        String tenant = TenantIds.resolve(tenantId);
+        PaymentRollupService.GroupBy grouping = parseGroupBy(groupBy);
+        LocalDateTime end = (to != null ? to : LocalDateTime.now().plusHours(1)).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime start = (from != null ? from : end.minusDays(1)).truncatedTo(ChronoUnit.HOURS);
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be at least an hour before 'to'");
+        }
+        if (start.plusDays(MAX_STATS_DAYS).isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range must not exceed " + MAX_STATS_DAYS + " days");
+        }
+        return ResponseEntity.ok(paymentRollupService.getStats(tenant, grouping, start, end));
+    }
+
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export payments",
+        description = "Streams payments created in the given range as CSV or newline-delimited JSON"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Export streamed successfully",
+            content = {
+                @Content(mediaType = "text/csv"),
+                @Content(mediaType = "application/x-ndjson")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid format or date range",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ErrorResponse.class)
+            )
+        )
+    })
+    public void exportPayments(
+            @Parameter(description = "csv or ndjson")
+            @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Inclusive lower bound on createdAt, e.g. 2026-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive upper bound on createdAt, e.g. 2026-03-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId,
+            HttpServletResponse response) throws IOException {
+
+        String tenant = TenantIds.resolve(tenantId);
+        PaymentExportService.Format exportFormat = parseExportFormat(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+
+        boolean csv = exportFormat == PaymentExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"payments." + (csv ? "csv" : "ndjson") + "\"");
+
+        paymentExportService.export(tenant, exportFormat, from, to, response.getOutputStream());
+    }
+
+    private PaymentRollupService.GroupBy parseGroupBy(String groupBy) {
+        if ("hour".equalsIgnoreCase(groupBy)) {
+            return PaymentRollupService.GroupBy.HOUR;
+        }
+        if ("zipPrefix".equalsIgnoreCase(groupBy)) {
+            return PaymentRollupService.GroupBy.ZIP_PREFIX;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported groupBy: " + groupBy);
+    }
+
+    private PaymentExportService.Format parseExportFormat(String format) {
+        for (PaymentExportService.Format candidate : PaymentExportService.Format.values()) {
+            if (candidate.name().equalsIgnoreCase(format)) {
+                return candidate;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,11 @@ package com.payment.api.controller;
 
 import com.payment.api.dto.ErrorResponse;
 import com.payment.api.dto.WebhookDTO;
+import com.payment.api.dto.WebhookStatsDTO;
 import com.payment.api.service.WebhookService;
+import com.payment.api.util.TenantIds;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -44,6 +47,7 @@ public class WebhookController {
                 examples = @ExampleObject(value = """
                     {
                         "id": 1,
+                        "tenantId": "default",
                         "url": "https://webhook.site/unique-id",
                         "description": "Primary notification endpoint",
                         "active": true,
@@ -89,16 +93,18 @@ public class WebhookController {
         )
     })
     public ResponseEntity<WebhookDTO.Response> createWebhook(
-            @Valid @RequestBody WebhookDTO.CreateRequest request) {
+            @Valid @RequestBody WebhookDTO.CreateRequest request,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
         
-        WebhookDTO.Response response = webhookService.createWebhook(request);
+        WebhookDTO.Response response = webhookService.createWebhook(TenantIds.resolve(tenantId), request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping
     @Operation(
         summary = "Get all webhooks",
-        description = "Retrieve a list of all registered webhooks"
+        description = "Retrieve a list of all webhooks registered by the tenant"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -111,6 +117,7 @@ public class WebhookController {
                     [
                         {
                             "id": 1,
+                            "tenantId": "default",
                             "url": "https://webhook.site/abc-123",
                             "description": "Primary endpoint",
                             "active": true,
@@ -118,6 +125,7 @@ public class WebhookController {
                         },
                         {
                             "id": 2,
+                            "tenantId": "default",
                             "url": "https://example.com/webhook",
                             "description": "Secondary endpoint",
                             "active": true,
@@ -145,11 +153,57 @@ public class WebhookController {
             )
         )
     })
-    public ResponseEntity<List<WebhookDTO.Response>> getAllWebhooks() {
-        List<WebhookDTO.Response> webhooks = webhookService.getAllWebhooks();
+    public ResponseEntity<List<WebhookDTO.Response>> getAllWebhooks(
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        List<WebhookDTO.Response> webhooks = webhookService.getAllWebhooks(TenantIds.resolve(tenantId));
         return ResponseEntity.ok(webhooks);
     }
 
+    @GetMapping("/{id}/stats")
+    @Operation(
+        summary = "Get webhook delivery stats",
+        description = "Success rate, latency percentiles and throughput of delivery attempts to a webhook "
+            + "over the last 1 minute, 5 minutes and 1 hour, computed in memory by this instance"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved delivery stats",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = WebhookStatsDTO.class),
+                examples = @ExampleObject(value = """
+                    {
+                        "webhookId": 1,
+                        "windows": [
+                            {
+                                "window": "1m",
+                                "attempts": 120,
+                                "successes": 114,
+                                "successRate": 0.95,
+                                "attemptsPerSecond": 2.0,
+                                "p50Millis": 70,
+                                "p99Millis": 1500
+                            }
+                        ]
+                    }
+                """)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Webhook not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<WebhookStatsDTO> getWebhookStats(
+            @PathVariable Long id,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        return ResponseEntity.ok(webhookService.getWebhookStats(TenantIds.resolve(tenantId), id));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
         summary = "Delete a webhook",
@@ -195,8 +249,11 @@ public class WebhookController {
             )
         )
     })
-    public ResponseEntity<Void> deleteWebhook(@PathVariable Long id) {
-        webhookService.deleteWebhook(id);
+    public ResponseEntity<Void> deleteWebhook(
+            @PathVariable Long id,
+            @Parameter(description = "Merchant the request acts for; omitted means the default tenant")
+            @RequestHeader(value = TenantIds.HEADER, required = false) String tenantId) {
+        webhookService.deleteWebhook(TenantIds.resolve(tenantId), id);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
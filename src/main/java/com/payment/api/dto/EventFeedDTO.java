@@ -0,0 +1,39 @@
+package com.payment.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventFeedDTO {
+
+    /**
+     * Events after the requested cursor, oldest first; empty when the poll timed out
+     */
+    private List<Event> events;
+
+    /**
+     * Cursor to send with the next poll
+     */
+    private long nextCursor;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+
+        private long id;
+        private String eventType;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime timestamp;
+
+        private PaymentDTO.Response payment;
+    }
+}
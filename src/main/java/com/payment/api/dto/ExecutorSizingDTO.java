@@ -0,0 +1,61 @@
+package com.payment.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutorSizingDTO {
+
+    private String executor;
+
+    /**
+     * "adaptive" when the sizer is in control, "override" after a manual resize
+     */
+    private String mode;
+
+    private int threads;
+    private int queueCapacity;
+    private int activeThreads;
+    private int queuedTasks;
+
+    private int minThreads;
+    private int maxThreads;
+    private int minQueueCapacity;
+    private int maxQueueCapacity;
+
+    /**
+     * Observations from the last sizing interval
+     */
+    private double tasksPerSecond;
+    private double avgQueueWaitMillis;
+    private double avgRunMillis;
+    private long rejected;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime adjustedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OverrideRequest {
+
+        @NotNull(message = "Thread count is required")
+        @Min(value = 1, message = "Thread count must be at least 1")
+        @Max(value = 500, message = "Thread count must not exceed 500")
+        private Integer threads;
+
+        @NotNull(message = "Queue capacity is required")
+        @Min(value = 1, message = "Queue capacity must be at least 1")
+        @Max(value = 100000, message = "Queue capacity must not exceed 100000")
+        private Integer queueCapacity;
+    }
+}
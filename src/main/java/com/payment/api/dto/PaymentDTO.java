@@ -1,6 +1,7 @@
 package com.payment.api.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.payment.api.entity.PaymentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -36,6 +37,16 @@ public class PaymentDTO {
         private String cardNumber;
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CardLookupRequest {
+
+        @NotBlank(message = "Card number is required")
+        @Pattern(regexp = "^[0-9]{13,19}$", message = "Card number: digits only, length 13-19.")
+        private String cardNumber;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -46,6 +57,7 @@ public class PaymentDTO {
         private String lastName;
         private String zipCode;
         private String cardNumberMasked;
+        private PaymentStatus status;
         
         @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
         private LocalDateTime createdAt;
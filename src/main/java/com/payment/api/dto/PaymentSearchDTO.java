@@ -0,0 +1,23 @@
+package com.payment.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchDTO {
+
+    /**
+     * Matching payments, newest first
+     */
+    private List<PaymentDTO.Response> payments;
+
+    /**
+     * Cursor for the next page; null when there are no more matches
+     */
+    private String nextCursor;
+}
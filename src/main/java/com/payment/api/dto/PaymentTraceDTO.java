@@ -0,0 +1,34 @@
+package com.payment.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentTraceDTO {
+
+    private String requestId;
+    private Long paymentId;
+    private List<Span> spans;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Span {
+
+        private String name;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+        private LocalDateTime startedAt;
+
+        private long durationMicros;
+        private String thread;
+        private String detail;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
@@ -24,6 +26,28 @@ public class WebhookDTO {
 
         @Size(max = 255, message = "Description must not exceed 255 characters")
         private String description;
+
+        // Optional delivery policy; omitted values use the global defaults
+
+        @Min(value = 100, message = "Connect timeout must be at least 100 ms")
+        @Max(value = 30000, message = "Connect timeout must not exceed 30000 ms")
+        private Integer connectTimeoutMs;
+
+        @Min(value = 100, message = "Read timeout must be at least 100 ms")
+        @Max(value = 60000, message = "Read timeout must not exceed 60000 ms")
+        private Integer readTimeoutMs;
+
+        @Min(value = 1, message = "Max retry attempts must be at least 1")
+        @Max(value = 10, message = "Max retry attempts must not exceed 10")
+        private Integer maxRetryAttempts;
+
+        @Min(value = 0, message = "Initial retry delay must not be negative")
+        @Max(value = 300000, message = "Initial retry delay must not exceed 300000 ms")
+        private Integer initialRetryDelayMs;
+
+        @Min(value = 1, message = "Max concurrency must be at least 1")
+        @Max(value = 100, message = "Max concurrency must not exceed 100")
+        private Integer maxConcurrency;
     }
 
     @Data
@@ -32,9 +56,19 @@ public class WebhookDTO {
     public static class Response {
         
         private Long id;
+        private String tenantId;
         private String url;
         private String description;
         private Boolean active;
+
+        /**
+         * Effective delivery policy, with global defaults filled in
+         */
+        private int connectTimeoutMs;
+        private int readTimeoutMs;
+        private int maxRetryAttempts;
+        private int initialRetryDelayMs;
+        private int maxConcurrency;
         
         @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
         private LocalDateTime createdAt;
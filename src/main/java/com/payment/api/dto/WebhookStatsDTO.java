@@ -0,0 +1,39 @@
+package com.payment.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookStatsDTO {
+
+    private Long webhookId;
+    private List<Window> windows;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Window {
+
+        private String window;
+        private long attempts;
+        private long successes;
+
+        /**
+         * Fraction of attempts answered with 2xx, null when there were no attempts
+         */
+        private Double successRate;
+
+        private double attemptsPerSecond;
+
+        /**
+         * Latency percentiles, as the upper bound of the histogram bucket they fall in
+         */
+        private Long p50Millis;
+        private Long p99Millis;
+    }
+}
@@ -0,0 +1,56 @@
+package com.payment.api.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a payment moved out of the hot payments table by the archival job.
+ * Rows keep their original ID so references stay resolvable.
+ */
+@Entity
+@Table(name = "payments_archive", indexes = {
+    @Index(name = "idx_archive_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedPayment {
+
+    @Id
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "first_name", nullable = false, length = 100)
+    private String firstName;
+
+    @Column(name = "last_name", nullable = false, length = 100)
+    private String lastName;
+
+    @Column(name = "zip_code", nullable = false, length = 20)
+    private String zipCode;
+
+    @Column(name = "card_number_encrypted", nullable = false, length = 500)
+    private String cardNumberEncrypted;
+
+    @Column(name = "card_number_masked", nullable = false, length = 20)
+    private String cardNumberMasked;
+
+    @Column(name = "card_fingerprint", length = 64)
+    private String cardFingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private PaymentStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -1,5 +1,6 @@
 package com.payment.api.entity;
 
+import com.payment.api.util.TenantIds;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,7 +10,12 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_card_fingerprint", columnList = "card_fingerprint"),
+    @Index(name = "idx_tenant_created_at", columnList = "tenant_id, created_at"),
+    @Index(name = "idx_tenant_search_created", columnList = "tenant_id, search_key, created_at, id, zip_code")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +25,11 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Merchant the row belongs to (X-Tenant-Id); rows created before tenancy belong to "default"
+    @Column(name = "tenant_id", nullable = false, length = 64,
+        columnDefinition = "VARCHAR(64) NOT NULL DEFAULT 'default'")
+    private String tenantId = TenantIds.DEFAULT_TENANT;
+
     @Column(name = "first_name", nullable = false, length = 100)
     private String firstName;
 
@@ -28,12 +39,26 @@ public class Payment {
     @Column(name = "zip_code", nullable = false, length = 20)
     private String zipCode;
 
+    // Last name as matched by payment search (see SearchKeys); null on rows created before search existed
+    @Column(name = "search_key", length = 100)
+    private String searchKey;
+
     @Column(name = "card_number_encrypted", nullable = false, length = 500)
     private String cardNumberEncrypted;
 
     @Column(name = "card_number_masked", nullable = false, length = 20)
     private String cardNumberMasked;
 
+    // Keyed HMAC of the card number; null until the backfill job reaches rows created before it existed
+    @Column(name = "card_fingerprint", length = 64)
+    private String cardFingerprint;
+
+    // Rows created before statuses existed read as CREATED
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20,
+        columnDefinition = "VARCHAR(20) NOT NULL DEFAULT 'CREATED'")
+    private PaymentStatus status = PaymentStatus.CREATED;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
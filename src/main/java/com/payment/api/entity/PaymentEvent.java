@@ -0,0 +1,43 @@
+package com.payment.api.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Durable copy of every payment event, read by the event feed for cursors older than its
+ * in-memory buffer. The ID doubles as the feed cursor.
+ */
+@Entity
+@Table(name = "payment_events", indexes = {
+    @Index(name = "idx_events_tenant_id", columnList = "tenant_id, id"),
+    @Index(name = "idx_events_created_at", columnList = "created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "event_type", nullable = false, length = 40)
+    private String eventType;
+
+    // The payment as sent to webhooks, as JSON
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
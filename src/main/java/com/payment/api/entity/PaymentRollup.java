@@ -0,0 +1,47 @@
+package com.payment.api.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Payment count for one tenant, hour and zip-code prefix, kept up to date by
+ * PaymentRollupService so dashboards never aggregate the payments table
+ */
+@Entity
+@Table(name = "payment_rollups")
+@IdClass(PaymentRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRollup {
+
+    @Id
+    @Column(name = "tenant_id", length = 64)
+    private String tenantId;
+
+    @Id
+    @Column(name = "bucket_hour")
+    private LocalDateTime bucketHour;
+
+    @Id
+    @Column(name = "zip_prefix", length = 5)
+    private String zipPrefix;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String tenantId;
+        private LocalDateTime bucketHour;
+        private String zipPrefix;
+    }
+}
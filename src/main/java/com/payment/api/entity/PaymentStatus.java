@@ -0,0 +1,21 @@
+package com.payment.api.entity;
+
+/**
+ * Lifecycle of a payment. Each state can only be reached from the one before it, and every
+ * transition is announced to the tenant's webhooks as PAYMENT_&lt;STATUS&gt;.
+ */
+public enum PaymentStatus {
+
+    CREATED,
+    AUTHORIZED,
+    CAPTURED,
+    REFUNDED;
+
+    public boolean canTransitionTo(PaymentStatus next) {
+        return next.ordinal() == ordinal() + 1;
+    }
+
+    public String eventType() {
+        return "PAYMENT_" + name();
+    }
+}
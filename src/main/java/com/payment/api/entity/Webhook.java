@@ -1,5 +1,6 @@
 package com.payment.api.entity;
 
+import com.payment.api.util.TenantIds;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,6 +20,11 @@ public class Webhook {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Merchant the row belongs to (X-Tenant-Id); webhooks created before tenancy belong to "default"
+    @Column(name = "tenant_id", nullable = false, length = 64,
+        columnDefinition = "VARCHAR(64) NOT NULL DEFAULT 'default'")
+    private String tenantId = TenantIds.DEFAULT_TENANT;
+
     @Column(name = "url", nullable = false, length = 500)
     private String url;
 
@@ -28,6 +34,22 @@ public class Webhook {
     @Column(name = "active", nullable = false)
     private Boolean active = true;
 
+    // Delivery policy; null falls back to the global webhook.* defaults
+    @Column(name = "connect_timeout_ms")
+    private Integer connectTimeoutMs;
+
+    @Column(name = "read_timeout_ms")
+    private Integer readTimeoutMs;
+
+    @Column(name = "max_retry_attempts")
+    private Integer maxRetryAttempts;
+
+    @Column(name = "initial_retry_delay_ms")
+    private Integer initialRetryDelayMs;
+
+    @Column(name = "max_concurrency")
+    private Integer maxConcurrency;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,50 @@
+package com.payment.api.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The latest event successfully delivered for one payment to one webhook, written by
+ * WebhookDeliveryLog and read by the reconciliation sweeper to find deliveries that were lost
+ */
+@Entity
+@Table(name = "webhook_deliveries", indexes = {
+    @Index(name = "idx_deliveries_delivered_at", columnList = "delivered_at")
+})
+@IdClass(WebhookDelivery.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDelivery {
+
+    @Id
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Id
+    @Column(name = "webhook_id")
+    private Long webhookId;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "event_type", nullable = false, length = 40)
+    private String eventType;
+
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long paymentId;
+        private Long webhookId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.payment.api.repository;
+
+import com.payment.api.entity.PaymentEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+
+    /**
+     * New events of all tenants, for the feed's tailer
+     */
+    List<PaymentEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * A tenant's events in a cursor range, served by idx_events_tenant_id
+     */
+    List<PaymentEvent> findByTenantIdAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+        String tenantId, Long afterId, Long upToId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM PaymentEvent e")
+    long findMaxId();
+
+    /**
+     * Oldest events first; IDs grow with time, so the primary key scan stops at the first page
+     */
+    @Query("SELECT e.id FROM PaymentEvent e WHERE e.createdAt < :cutoff ORDER BY e.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -1,9 +1,62 @@
 package com.payment.api.repository;
 
 import com.payment.api.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-}
\ No newline at end of file
+
+    /**
+     * One page of a tenant's payments with the given search key, newest first. Served by
+     * idx_tenant_search_created: the tenant, key and date range bound the index range, and rows
+     * come back in index order so nothing is sorted. The seek is on created_at alone
+     * ({@code created_at <= beforeTime}); the OR is not a row comparison on (created_at, id), so
+     * it is applied as a filter, and it only rejects the rows sharing the previous page's last
+     * timestamp. zip_code is the index's last column, so the zip filter is checked on the index
+     * entries (index condition pushdown) and only matching rows are read from the table.
+     */
+    String SEARCH_SQL =
+        "SELECT p.* FROM payments p " +
+        "WHERE p.tenant_id = :tenantId AND p.search_key = :searchKey " +
+        "AND p.created_at >= :fromTime AND p.created_at <= :beforeTime " +
+        "AND (p.created_at < :beforeTime OR p.id < :beforeId) " +
+        "AND p.zip_code LIKE :zipPattern " +
+        "ORDER BY p.created_at DESC, p.id DESC " +
+        "LIMIT :limit";
+
+    /**
+     * @param beforeTime  exclusive upper bound, or the createdAt of the last row of the previous page
+     * @param beforeId    0 for the first page, otherwise the ID of the last row of the previous page
+     * @param zipPattern  zip prefix followed by %, or % for any zip code
+     */
+    @Query(value = SEARCH_SQL, nativeQuery = true)
+    List<Payment> search(@Param("tenantId") String tenantId,
+                         @Param("searchKey") String searchKey,
+                         @Param("zipPattern") String zipPattern,
+                         @Param("fromTime") LocalDateTime fromTime,
+                         @Param("beforeTime") LocalDateTime beforeTime,
+                         @Param("beforeId") long beforeId,
+                         @Param("limit") int limit);
+
+    /**
+     * Served by idx_card_fingerprint; the tenant filter applies to the few rows it matches
+     */
+    List<Payment> findByTenantIdAndCardFingerprintOrderByIdDesc(String tenantId, String cardFingerprint,
+                                                                 Pageable pageable);
+
+    /**
+     * Locks the row until the transaction ends so concurrent status changes apply one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Payment> findForUpdateByIdAndTenantId(Long id, String tenantId);
+}
@@ -5,9 +5,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WebhookRepository extends JpaRepository<Webhook, Long> {
     
     List<Webhook> findByActiveTrue();
+
+    List<Webhook> findByTenantId(String tenantId);
+
+    Optional<Webhook> findByIdAndTenantId(Long id, String tenantId);
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.JobStatusDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A restartable background pass over the encrypted card column of payments, or of several
+ * tables with that column (payments and payments_archive), one table after the other.
+ * <p>
+ * The ID space is split into one contiguous range per worker and each worker walks its range
+ * in primary-key order with keyset batches ({@code id > last ORDER BY id LIMIT n}), so every
+ * query is an index range scan and row locks are held only for one short batch. Workers
+ * throttle themselves to a shared rows-per-second budget so live traffic keeps priority.
+ */
+@Slf4j
+public class CardBatchJob {
+
+    public record CardRow(long id, String cardNumberEncrypted) {
+    }
+
+    @FunctionalInterface
+    public interface BatchHandler {
+
+        /**
+         * Processes one batch, read from the given table, and returns the number of rows changed
+         */
+        int handle(String table, List<CardRow> batch);
+    }
+
+    private final String name;
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor executor;
+    private final List<String> tables;
+    private final String filter;
+    private final BatchHandler handler;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    private int batchSize = 500;
+    private int workers = 4;
+    private int maxRowsPerSecond = 5000;
+
+    /**
+     * @param filter extra SQL predicate selecting rows that still need work, or null for all rows
+     */
+    public CardBatchJob(String name, JdbcTemplate jdbcTemplate, Executor executor, String filter,
+                        BatchHandler handler) {
+        this(name, jdbcTemplate, executor, List.of("payments"), filter, handler);
+    }
+
+    /**
+     * @param tables tables to walk in order, each with id and card_number_encrypted columns
+     * @param filter extra SQL predicate selecting rows that still need work, or null for all rows
+     */
+    public CardBatchJob(String name, JdbcTemplate jdbcTemplate, Executor executor, List<String> tables,
+                        String filter, BatchHandler handler) {
+        this.name = name;
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.tables = List.copyOf(tables);
+        this.filter = filter;
+        this.handler = handler;
+    }
+
+    public void configure(int batchSize, int workers, int maxRowsPerSecond) {
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    /**
+     * Starts the pass in the background. Returns false if a pass is already running.
+     */
+    public synchronized boolean start() {
+        if ("RUNNING".equals(state)) {
+            return false;
+        }
+        scanned.set(0);
+        updated.set(0);
+        error = null;
+        finishedAt = null;
+        startedAt = LocalDateTime.now();
+        state = "RUNNING";
+
+        try {
+            launch(0);
+        } catch (RuntimeException e) {
+            finish(e);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Walks the table at the index and, once all its ranges are done, the next one
+     */
+    private void launch(int tableIndex) {
+        if (tableIndex == tables.size()) {
+            finish(null);
+            return;
+        }
+        String table = tables.get(tableIndex);
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+            "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM " + table);
+        if (bounds.get("min_id") == null) {
+            launch(tableIndex + 1);
+            return;
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        String selectBatch = "SELECT id, card_number_encrypted FROM " + table + " WHERE id > ? AND id <= ?"
+            + (filter == null ? "" : " AND " + filter)
+            + " ORDER BY id LIMIT ?";
+
+        long span = (maxId - minId + 1 + workers - 1) / workers;
+        List<CompletableFuture<Void>> ranges = new ArrayList<>();
+        for (long from = minId - 1; from < maxId; from += span) {
+            long lower = from;
+            long upper = Math.min(from + span, maxId);
+            ranges.add(CompletableFuture.runAsync(() -> walkRange(table, selectBatch, lower, upper), executor));
+        }
+
+        log.info("Started {} over {} IDs {}..{} with {} workers", name, table, minId, maxId, ranges.size());
+        CompletableFuture.allOf(ranges.toArray(new CompletableFuture[0]))
+            .whenComplete((ignored, ex) -> {
+                if (ex != null) {
+                    finish(ex);
+                    return;
+                }
+                try {
+                    launch(tableIndex + 1);
+                } catch (RuntimeException e) {
+                    finish(e);
+                }
+            });
+    }
+
+    public JobStatusDTO getStatus() {
+        return new JobStatusDTO(name, state, scanned.get(), updated.get(), startedAt, finishedAt, error);
+    }
+
+    private void walkRange(String table, String selectBatch, long lowerExclusive, long upperInclusive) {
+        long perWorkerRate = Math.max(1, maxRowsPerSecond / workers);
+        long last = lowerExclusive;
+        while (true) {
+            long start = System.nanoTime();
+            List<CardRow> batch = jdbcTemplate.query(selectBatch,
+                (rs, rowNum) -> new CardRow(rs.getLong(1), rs.getString(2)),
+                last, upperInclusive, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            scanned.addAndGet(batch.size());
+            updated.addAndGet(handler.handle(table, batch));
+            last = batch.get(batch.size() - 1).id();
+            if (batch.size() < batchSize) {
+                return;
+            }
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            long budgetMs = batch.size() * 1000L / perWorkerRate;
+            if (budgetMs > elapsedMs) {
+                try {
+                    Thread.sleep(budgetMs - elapsedMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(name + " interrupted", e);
+                }
+            }
+        }
+    }
+
+    private void finish(Throwable ex) {
+        finishedAt = LocalDateTime.now();
+        if (ex != null) {
+            error = ex.getMessage();
+            state = "FAILED";
+            log.error("{} failed after {} rows: {}", name, scanned.get(), ex.getMessage());
+        } else {
+            state = "COMPLETED";
+            log.info("{} completed: {} rows scanned, {} updated", name, scanned.get(), updated.get());
+        }
+    }
+}
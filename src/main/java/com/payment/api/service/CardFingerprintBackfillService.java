@@ -0,0 +1,81 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.JobStatusDTO;
+import com.payment.api.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * One-time pass that fills in card_fingerprint for payments created before fingerprints were
+ * recorded. Only rows with a null fingerprint are read, so a pass that was interrupted can
+ * simply be started again.
+ */
+@Service
+@Slf4j
+public class CardFingerprintBackfillService {
+
+    // Guarded on the ciphertext that was read so a concurrent re-encryption cannot be overwritten
+    private static final String UPDATE_FINGERPRINT =
+        "UPDATE payments SET card_fingerprint = ? " +
+        "WHERE id = ? AND card_fingerprint IS NULL AND card_number_encrypted = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EncryptionUtil encryptionUtil;
+    private final CardBatchJob job;
+
+    public CardFingerprintBackfillService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EncryptionUtil encryptionUtil,
+            @Qualifier("backgroundJobExecutor") Executor backgroundJobExecutor,
+            @Value("${encryption.fingerprint.backfill.batch-size:500}") int batchSize,
+            @Value("${encryption.fingerprint.backfill.workers:4}") int workers,
+            @Value("${encryption.fingerprint.backfill.max-rows-per-second:5000}") int maxRowsPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encryptionUtil = encryptionUtil;
+        this.job = new CardBatchJob("fingerprint-backfill", jdbcTemplate, backgroundJobExecutor,
+            "card_fingerprint IS NULL", this::fingerprintBatch);
+        this.job.configure(batchSize, workers, maxRowsPerSecond);
+    }
+
+    /**
+     * Starts a backfill pass; returns false if one is already running
+     */
+    public boolean start() {
+        log.info("Starting card fingerprint backfill");
+        return job.start();
+    }
+
+    public JobStatusDTO getStatus() {
+        return job.getStatus();
+    }
+
+    private int fingerprintBatch(String table, List<CardBatchJob.CardRow> batch) {
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        for (CardBatchJob.CardRow row : batch) {
+            String cardNumber = encryptionUtil.decrypt(row.cardNumberEncrypted());
+            updates.add(new Object[] {encryptionUtil.fingerprint(cardNumber), row.id(), row.cardNumberEncrypted()});
+        }
+
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_FINGERPRINT, updates));
+        int changed = 0;
+        for (int count : counts) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches
+            if (count != 0) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
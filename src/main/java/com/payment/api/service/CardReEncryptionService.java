@@ -0,0 +1,89 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.JobStatusDTO;
+import com.payment.api.util.EncryptionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Rewrites card numbers that are not yet in the active format (legacy ECB values, older key
+ * versions, or direct-key values once envelope encryption is on) so old keys can be retired
+ * without downtime. Archived payments keep their card numbers, so payments_archive is walked
+ * after payments; a key is only safe to retire once both are done. Each batch is committed on
+ * its own, and an update only applies if the row still holds the value that was read.
+ */
+@Service
+@Slf4j
+public class CardReEncryptionService {
+
+    private static final List<String> TABLES = List.of("payments", "payments_archive");
+
+    private static final String UPDATE_CARD =
+        "UPDATE %s SET card_number_encrypted = ? WHERE id = ? AND card_number_encrypted = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EncryptionUtil encryptionUtil;
+    private final CardBatchJob job;
+
+    public CardReEncryptionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EncryptionUtil encryptionUtil,
+            @Qualifier("backgroundJobExecutor") Executor backgroundJobExecutor,
+            @Value("${encryption.reencryption.batch-size:500}") int batchSize,
+            @Value("${encryption.reencryption.workers:4}") int workers,
+            @Value("${encryption.reencryption.max-rows-per-second:5000}") int maxRowsPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encryptionUtil = encryptionUtil;
+        this.job = new CardBatchJob("re-encryption", jdbcTemplate, backgroundJobExecutor, TABLES,
+            "card_number_encrypted NOT LIKE '" + encryptionUtil.getActivePrefix() + "%'", this::reEncryptBatch);
+        this.job.configure(batchSize, workers, maxRowsPerSecond);
+    }
+
+    /**
+     * Starts a re-encryption pass; returns false if one is already running
+     */
+    public boolean start() {
+        log.info("Starting re-encryption of card numbers to format {}", encryptionUtil.getActivePrefix());
+        return job.start();
+    }
+
+    public JobStatusDTO getStatus() {
+        return job.getStatus();
+    }
+
+    private int reEncryptBatch(String table, List<CardBatchJob.CardRow> batch) {
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        for (CardBatchJob.CardRow row : batch) {
+            if (encryptionUtil.needsReEncryption(row.cardNumberEncrypted())) {
+                updates.add(new Object[] {
+                    encryptionUtil.reEncrypt(row.cardNumberEncrypted()), row.id(), row.cardNumberEncrypted()
+                });
+            }
+        }
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(String.format(UPDATE_CARD, table), updates));
+        int changed = 0;
+        for (int count : counts) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches
+            if (count != 0) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
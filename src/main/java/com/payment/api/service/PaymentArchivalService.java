@@ -0,0 +1,158 @@
+package com.payment.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves payments older than the retention period from the hot payments table into payments_archive.
+ * Works in small keyset batches, each in its own short transaction, and sleeps between batches so
+ * the job never takes more than a fixed share of wall time or competes with queued payment creates.
+ * Under sustained traffic the queue may never drain, so the wait before a batch is capped and the
+ * batch runs anyway once max-busy-wait-ms has passed.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.archival.enabled", havingValue = "true")
+@Slf4j
+public class PaymentArchivalService {
+
+    static final String ARCHIVED_COLUMNS =
+        "id, tenant_id, first_name, last_name, zip_code, card_number_encrypted, card_number_masked, card_fingerprint, "
+            + "status, created_at";
+
+    private static final String SELECT_BATCH =
+        "SELECT id FROM payments WHERE created_at < :cutoff ORDER BY created_at, id LIMIT :limit";
+
+    private static final String COPY_BATCH =
+        "INSERT INTO payments_archive (" + ARCHIVED_COLUMNS + ", archived_at) " +
+        "SELECT " + ARCHIVED_COLUMNS + ", CURRENT_TIMESTAMP FROM payments WHERE id IN (:ids)";
+
+    private static final String DELETE_BATCH = "DELETE FROM payments WHERE id IN (:ids)";
+
+    private static final long BUSY_BACKOFF_MS = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor persistenceExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${payment.archival.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${payment.archival.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${payment.archival.max-batches-per-run:500}")
+    private int maxBatchesPerRun;
+
+    private final double dutyCycle;
+    private final long maxBusyWaitMs;
+
+    public PaymentArchivalService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("persistenceExecutor") Executor persistenceExecutor,
+            @Value("${payment.archival.duty-cycle:0.25}") double dutyCycle,
+            @Value("${payment.archival.max-busy-wait-ms:30000}") long maxBusyWaitMs) {
+        if (!(dutyCycle > 0 && dutyCycle <= 1)) {
+            throw new IllegalArgumentException("payment.archival.duty-cycle must be in (0, 1]: " + dutyCycle);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.persistenceExecutor = persistenceExecutor;
+        this.dutyCycle = dutyCycle;
+        this.maxBusyWaitMs = maxBusyWaitMs;
+    }
+
+    @Scheduled(cron = "${payment.archival.cron:0 */10 * * * *}")
+    public void archiveExpiredPayments() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Previous archival run still in progress, skipping");
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            long archived = archiveBefore(cutoff);
+            if (archived > 0) {
+                log.info("Archived {} payments created before {}", archived, cutoff);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Payment archival interrupted");
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Archives payments created before the cutoff, at most maxBatchesPerRun batches per call
+     */
+    public long archiveBefore(LocalDateTime cutoff) throws InterruptedException {
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            awaitIdlePersistenceQueue();
+
+            long start = System.nanoTime();
+            int moved = archiveBatch(cutoff);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+
+            long workedMs = (System.nanoTime() - start) / 1_000_000;
+            Thread.sleep((long) (workedMs * (1 - dutyCycle) / dutyCycle));
+        }
+        return total;
+    }
+
+    /**
+     * Waits for queued payment creates to drain, for at most maxBusyWaitMs
+     */
+    private void awaitIdlePersistenceQueue() throws InterruptedException {
+        long deadline = System.nanoTime() + maxBusyWaitMs * 1_000_000;
+        while (liveTrafficQueued()) {
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMs <= 0) {
+                log.debug("Persistence queue still busy after {} ms, archiving the next batch anyway", maxBusyWaitMs);
+                return;
+            }
+            Thread.sleep(Math.min(BUSY_BACKOFF_MS, remainingMs));
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH, new MapSqlParameterSource()
+            .addValue("cutoff", Timestamp.valueOf(cutoff))
+            .addValue("limit", batchSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(COPY_BATCH, params);
+            return jdbcTemplate.update(DELETE_BATCH, params);
+        });
+        log.debug("Archived batch of {} payments up to ID {}", moved, ids.get(ids.size() - 1));
+        return moved == null ? 0 : moved;
+    }
+
+    private boolean liveTrafficQueued() {
+        return persistenceExecutor instanceof ThreadPoolTaskExecutor
+            && ((ThreadPoolTaskExecutor) persistenceExecutor).getThreadPoolExecutor().getQueue().size() > 0;
+    }
+}
@@ -0,0 +1,304 @@
+package com.payment.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.dto.EventFeedDTO;
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.entity.PaymentEvent;
+import com.payment.api.repository.PaymentEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pull-based feed of payment events for partners that cannot receive webhooks. Events are
+ * written to payment_events in the transaction that causes them; a tailer on each instance
+ * reads new rows in ID order and appends them to a fixed-size ring buffer per tenant, so polls
+ * for recent cursors never touch the database and rows written by other instances are seen
+ * too. Older cursors fall back to the table. Long polls are parked as DeferredResults and
+ * completed by the tailer, so waiting pollers hold no thread.
+ * <p>
+ * Events whose transaction commits more than gap-timeout-ms after a later event's are missed by
+ * pollers whose cursor has already passed them; the feed favours latency over that rare case,
+ * and partners that cannot tolerate it should also reconcile from GET /api/payments/export.
+ * Rows older than events.feed.retention-days are deleted, so a cursor older than that resumes
+ * at the oldest retained event.
+ */
+@Service
+@Slf4j
+public class PaymentEventFeed {
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int tailBatchSize;
+    private final long gapTimeoutNanos;
+    private final int retentionDays;
+    private final int pruneBatchSize;
+
+    private final Map<String, EventRing> rings = new ConcurrentHashMap<>();
+    private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    // Highest event ID appended to the rings; -1 until the tailer has found where the table ends
+    private volatile long lastPublishedId = -1;
+    // When the tailer first found a missing ID it is waiting for; guarded by this
+    private long gapSinceNanos;
+    private boolean gapOpen;
+
+    public PaymentEventFeed(PaymentEventRepository paymentEventRepository, ObjectMapper objectMapper,
+                            @Value("${events.feed.buffer-size:1000}") int bufferSize,
+                            @Value("${events.feed.tail-batch-size:500}") int tailBatchSize,
+                            @Value("${events.feed.gap-timeout-ms:2000}") long gapTimeoutMs,
+                            @Value("${events.feed.retention-days:30}") int retentionDays,
+                            @Value("${events.feed.prune-batch-size:1000}") int pruneBatchSize) {
+        this.paymentEventRepository = paymentEventRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.tailBatchSize = tailBatchSize;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+        this.retentionDays = retentionDays;
+        this.pruneBatchSize = pruneBatchSize;
+    }
+
+    /**
+     * Stores the event; call inside the transaction that changed the payment so the event is
+     * visible exactly when the change is
+     */
+    public void record(String tenantId, String eventType, PaymentDTO.Response payment) {
+        try {
+            paymentEventRepository.save(new PaymentEvent(null, tenantId, payment.getId(), eventType,
+                objectMapper.writeValueAsString(payment), LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize payment " + payment.getId(), e);
+        }
+    }
+
+    /**
+     * Returns the tenant's events after the cursor, or parks the poll until one arrives or the
+     * timeout passes, in which case the result is an empty batch with the same cursor
+     *
+     * @param cursor last event ID the caller has seen; null starts from the newest event
+     */
+    public DeferredResult<EventFeedDTO> poll(String tenantId, Long cursor, int limit, long timeoutMs) {
+        long from = cursor != null ? cursor : currentCursor();
+        EventFeedDTO empty = new EventFeedDTO(List.of(), from);
+        DeferredResult<EventFeedDTO> result = new DeferredResult<>(timeoutMs, () -> empty);
+
+        EventFeedDTO batch = read(tenantId, from, limit);
+        if (!batch.getEvents().isEmpty() || timeoutMs <= 0) {
+            result.setResult(batch);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(tenantId, from, limit, result);
+        Set<Waiter> tenantWaiters = waiters.computeIfAbsent(tenantId, tenant -> ConcurrentHashMap.newKeySet());
+        tenantWaiters.add(waiter);
+        result.onCompletion(() -> tenantWaiters.remove(waiter));
+        // An event published between the read and registering would not wake this waiter
+        wake(waiter);
+        return result;
+    }
+
+    /**
+     * Reads up to limit of the tenant's events after the cursor without waiting
+     */
+    public EventFeedDTO read(String tenantId, long cursor, int limit) {
+        EventRing ring = rings.get(tenantId);
+        // Events up to the floor are only in the table
+        long floor = ring != null ? ring.floor() : currentCursor();
+        List<EventFeedDTO.Event> events = new ArrayList<>();
+        long next = cursor;
+        while (true) {
+            if (next < floor) {
+                paymentEventRepository.findByTenantIdAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                        tenantId, next, floor, PageRequest.of(0, limit - events.size()))
+                    .forEach(row -> events.add(toEvent(row)));
+                next = events.size() == limit ? events.get(events.size() - 1).getId() : floor;
+            }
+            if (ring == null || events.size() == limit) {
+                break;
+            }
+            // The tailer may have evicted events past next since the floor was read; the ring
+            // then reads nothing and reports its new floor, and the gap comes from the table
+            floor = ring.readAfter(next, limit - events.size(), events);
+            if (floor <= next) {
+                break;
+            }
+        }
+        long nextCursor = events.isEmpty() ? next : events.get(events.size() - 1).getId();
+        return new EventFeedDTO(events, nextCursor);
+    }
+
+    /**
+     * Appends newly committed events to the rings and completes the polls waiting for them.
+     * IDs are handed out before commit, so a missing ID may still be in flight; the tailer waits
+     * up to gap-timeout-ms for it before assuming it was rolled back. An event committed later
+     * than that is skipped by the rings but still served to cursors older than the ring floor.
+     */
+    @Scheduled(fixedDelayString = "${events.feed.tail-interval-ms:250}")
+    public synchronized void tail() {
+        if (lastPublishedId < 0) {
+            lastPublishedId = paymentEventRepository.findMaxId();
+            return;
+        }
+        List<PaymentEvent> rows = paymentEventRepository.findByIdGreaterThanOrderByIdAsc(
+            lastPublishedId, PageRequest.of(0, tailBatchSize));
+        Set<String> tenants = new HashSet<>();
+        for (PaymentEvent row : rows) {
+            if (row.getId() != lastPublishedId + 1) {
+                long now = System.nanoTime();
+                if (!gapOpen) {
+                    gapOpen = true;
+                    gapSinceNanos = now;
+                }
+                if (now - gapSinceNanos < gapTimeoutNanos) {
+                    break;
+                }
+                log.warn("Event IDs {}-{} never committed; continuing after them", lastPublishedId + 1, row.getId() - 1);
+            }
+            gapOpen = false;
+            long floor = lastPublishedId;
+            rings.computeIfAbsent(row.getTenantId(), tenant -> new EventRing(bufferSize, floor)).add(toEvent(row));
+            lastPublishedId = row.getId();
+            tenants.add(row.getTenantId());
+        }
+        for (String tenantId : tenants) {
+            Set<Waiter> tenantWaiters = waiters.get(tenantId);
+            if (tenantWaiters != null) {
+                tenantWaiters.forEach(this::wake);
+            }
+        }
+    }
+
+    /**
+     * Deletes events older than the retention period in ID-ordered batches. Every instance may
+     * run it; deleting rows another instance already deleted is harmless.
+     */
+    @Scheduled(cron = "${events.feed.prune-cron:0 20 * * * *}")
+    public void pruneExpiredEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        List<Long> ids;
+        do {
+            ids = paymentEventRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, pruneBatchSize));
+            if (!ids.isEmpty()) {
+                total += paymentEventRepository.deleteByIdIn(ids);
+            }
+        } while (ids.size() == pruneBatchSize);
+        if (total > 0) {
+            log.info("Deleted {} payment events created before {}", total, cutoff);
+        }
+    }
+
+    public int getWaitingPolls() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void wake(Waiter waiter) {
+        EventFeedDTO batch = read(waiter.tenantId, waiter.cursor, waiter.limit);
+        if (!batch.getEvents().isEmpty() && waiter.result.setResult(batch)) {
+            waiters.getOrDefault(waiter.tenantId, Set.of()).remove(waiter);
+        }
+    }
+
+    private long currentCursor() {
+        if (lastPublishedId < 0) {
+            tail();
+        }
+        return lastPublishedId;
+    }
+
+    private EventFeedDTO.Event toEvent(PaymentEvent row) {
+        try {
+            return new EventFeedDTO.Event(row.getId(), row.getEventType(), row.getCreatedAt(),
+                objectMapper.readValue(row.getPayload(), PaymentDTO.Response.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload for event " + row.getId(), e);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final String tenantId;
+        private final long cursor;
+        private final int limit;
+        private final DeferredResult<EventFeedDTO> result;
+
+        Waiter(String tenantId, long cursor, int limit, DeferredResult<EventFeedDTO> result) {
+            this.tenantId = tenantId;
+            this.cursor = cursor;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+
+    /**
+     * The most recent events of one tenant in ID order. The floor is the highest ID no longer
+     * held, so the ring is complete for cursors at or above it.
+     */
+    private static final class EventRing {
+
+        private final EventFeedDTO.Event[] slots;
+        private int start;
+        private int count;
+        private long floor;
+
+        EventRing(int size, long floor) {
+            this.slots = new EventFeedDTO.Event[size];
+            this.floor = floor;
+        }
+
+        synchronized long floor() {
+            return floor;
+        }
+
+        synchronized void add(EventFeedDTO.Event event) {
+            if (count == slots.length) {
+                floor = slots[start].getId();
+                start = (start + 1) % slots.length;
+                count--;
+            }
+            slots[(start + count) % slots.length] = event;
+            count++;
+        }
+
+        /**
+         * Adds up to limit events after the cursor, checking the floor under the same lock
+         *
+         * @return the floor; when it is above the cursor nothing was read, since the ring no
+         *         longer holds every event after the cursor
+         */
+        synchronized long readAfter(long cursor, int limit, List<EventFeedDTO.Event> out) {
+            if (cursor < floor) {
+                return floor;
+            }
+            // Binary search for the first event after the cursor
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (slots[(start + mid) % slots.length].getId() <= cursor) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < count && limit > 0; i++, limit--) {
+                out.add(slots[(start + i) % slots.length]);
+            }
+            return floor;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.payment.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams payments straight from a forward-only JDBC cursor into an output stream.
+ * Rows never enter the persistence context, so memory stays flat regardless of table size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String SELECT_COLUMNS =
+        "SELECT id, first_name, last_name, zip_code, card_number_masked, created_at FROM payments";
+
+    private static final String CSV_HEADER = "id,firstName,lastName,zipCode,cardNumberMasked,createdAt";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payment.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Writes every payment of the tenant created in [from, to) to the given stream. Either bound
+     * may be null.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(String tenantId, Format format, LocalDateTime from, LocalDateTime to, OutputStream out)
+            throws IOException {
+        log.info("Starting {} export of payments for tenant {} from {} to {}", format, tenantId, from, to);
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(tenantId, from, to, params);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        try {
+            rowWriter.start();
+            jdbcTemplate.query(cursorStatement(sql, params), rowWriter);
+            rowWriter.finish();
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Finished {} export, {} rows written", format, rowWriter.count);
+        return rowWriter.count;
+    }
+
+    private String buildQuery(String tenantId, LocalDateTime from, LocalDateTime to, List<Object> params) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE tenant_id = ?");
+        params.add(tenantId);
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        // Follows idx_tenant_created_at, so MySQL can stream rows without a filesort
+        sql.append(" ORDER BY created_at, id");
+        return sql.toString();
+    }
+
+    private PreparedStatementCreator cursorStatement(String sql, List<Object> params) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        };
+    }
+
+    private static String formatTimestamp(Timestamp timestamp) {
+        return timestamp == null ? "" : TIMESTAMP_FORMAT.format(timestamp.toLocalDateTime());
+    }
+
+    private abstract static class RowWriter implements RowCallbackHandler {
+
+        long count;
+
+        void start() throws IOException {
+        }
+
+        void finish() throws IOException {
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+                count++;
+            } catch (IOException e) {
+                // Client went away mid-stream; abort the cursor
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void start() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writeField(rs.getString(2));
+            writer.write(',');
+            writeField(rs.getString(3));
+            writer.write(',');
+            writeField(rs.getString(4));
+            writer.write(',');
+            writeField(rs.getString(5));
+            writer.write(',');
+            writer.write(formatTimestamp(rs.getTimestamp(6)));
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void start() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Records are newline-delimited below instead of Jackson's default space separator
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong(1));
+            generator.writeStringField("firstName", rs.getString(2));
+            generator.writeStringField("lastName", rs.getString(3));
+            generator.writeStringField("zipCode", rs.getString(4));
+            generator.writeStringField("cardNumberMasked", rs.getString(5));
+            generator.writeStringField("createdAt", formatTimestamp(rs.getTimestamp(6)));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+}
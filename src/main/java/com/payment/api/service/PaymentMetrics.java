@@ -0,0 +1,148 @@
+package com.payment.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for payment creation and webhook delivery, exposed at /actuator/prometheus.
+ * Webhooks are tagged by ID rather than URL to keep tag cardinality bounded.
+ */
+@Component
+public class PaymentMetrics {
+
+    public static final String STAGE_VALIDATION = "validation";
+    public static final String STAGE_ENCRYPTION = "encryption";
+    public static final String STAGE_INSERT = "insert";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_HTTP_ERROR = "http_error";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    public PaymentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Records one stage of payment creation
+     */
+    public void recordStage(String stage, long nanos) {
+        stageTimers.computeIfAbsent(stage, name -> Timer.builder("payment.create.stage")
+                .description("Time spent in each stage of payment creation")
+                .tag("stage", name)
+                .publishPercentileHistogram()
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a task refused by a saturated executor
+     */
+    public void recordRejection(String executor) {
+        Counter.builder("executor.rejected")
+            .description("Tasks rejected because the executor's pool and queue were full")
+            .tag("name", executor)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Counts a webhook delivery discarded because the tenant's delivery queue was full
+     */
+    public void recordDropped(String tenantId) {
+        Counter.builder("webhook.delivery.dropped")
+            .description("Webhook deliveries dropped because the tenant's queue was full")
+            .tag("tenant", tenantId)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Counts a queued webhook delivery superseded by a newer event before it was sent
+     */
+    public void recordCoalesced(String tenantId) {
+        Counter.builder("webhook.delivery.coalesced")
+            .description("Queued webhook deliveries replaced by a later event for the same payment and webhook")
+            .tag("tenant", tenantId)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Counts a failed delivery given up because the global retry budget was exhausted
+     */
+    public void recordRetryDenied(String tenantId) {
+        Counter.builder("webhook.delivery.retry.denied")
+            .description("Webhook retries abandoned because retries exceeded their share of traffic")
+            .tag("tenant", tenantId)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Counts a delivery re-queued by the reconciliation sweeper because none was recorded
+     */
+    public void recordRedelivery(String tenantId) {
+        Counter.builder("webhook.delivery.reconciled")
+            .description("Webhook deliveries re-queued because no successful delivery was recorded")
+            .tag("tenant", tenantId)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Counts a delivery attempt put back without sending because every slot to the webhook was busy
+     */
+    public void recordBusyRequeue(Long webhookId) {
+        Counter.builder("webhook.delivery.busy")
+            .description("Webhook delivery attempts deferred because every concurrent slot was in use")
+            .tag("webhook", String.valueOf(webhookId))
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Records a single HTTP attempt to deliver a webhook
+     *
+     * @param statusCode HTTP status, or 0 when no response was received
+     */
+    public void recordDeliveryAttempt(Long webhookId, String outcome, int statusCode, long nanos) {
+        Timer.builder("webhook.delivery.attempt")
+            .description("Latency of individual webhook delivery attempts")
+            .tag("webhook", String.valueOf(webhookId))
+            .tag("outcome", outcome)
+            .tag("status", statusCode > 0 ? String.valueOf(statusCode) : "none")
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the end result of delivering one event to one webhook, including retries
+     */
+    public void recordDelivery(Long webhookId, boolean delivered, int attempts, long nanos) {
+        String webhook = String.valueOf(webhookId);
+        Timer.builder("webhook.delivery")
+            .description("Time from first attempt to final outcome of a webhook delivery")
+            .tag("webhook", webhook)
+            .tag("outcome", delivered ? "delivered" : "failed")
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("webhook.delivery.attempts")
+            .description("Attempts needed per webhook delivery")
+            .tag("webhook", webhook)
+            .register(registry)
+            .record(attempts);
+    }
+}
@@ -0,0 +1,91 @@
+package com.payment.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps the month-partitioned payments table (see database-setup.sql) rolling: creates partitions
+ * ahead of time by splitting pmax, and drops old partitions once the archival job has emptied them.
+ * Dropping an empty partition is a metadata operation, so the hot table never pays for bulk deletes.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.partitioning.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentPartitionService {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+    private static final String OVERFLOW_PARTITION = "pmax";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${payment.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${payment.archival.retention-days:365}")
+    private int retentionDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${payment.partitioning.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'payments' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+
+        if (!partitions.contains(OVERFLOW_PARTITION)) {
+            log.warn("payments table is not partitioned by month; see database-setup.sql");
+            return;
+        }
+
+        YearMonth newest = partitions.stream()
+            .filter(name -> !OVERFLOW_PARTITION.equals(name))
+            .map(name -> YearMonth.parse(name, PARTITION_NAME))
+            .max(YearMonth::compareTo)
+            .orElse(YearMonth.now().minusMonths(1));
+
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = newest.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            addPartition(month);
+        }
+
+        YearMonth oldestRetained = YearMonth.from(LocalDate.now().minusDays(retentionDays));
+        for (String name : partitions) {
+            if (!OVERFLOW_PARTITION.equals(name)
+                    && YearMonth.parse(name, PARTITION_NAME).isBefore(oldestRetained)) {
+                dropIfEmpty(name);
+            }
+        }
+    }
+
+    private void addPartition(YearMonth month) {
+        String name = PARTITION_NAME.format(month);
+        log.info("Adding payments partition {}", name);
+        jdbcTemplate.execute("ALTER TABLE payments REORGANIZE PARTITION " + OVERFLOW_PARTITION + " INTO (" +
+            "PARTITION " + name + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+            "PARTITION " + OVERFLOW_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    private void dropIfEmpty(String name) {
+        List<Long> remaining = jdbcTemplate.queryForList(
+            "SELECT id FROM payments PARTITION (" + name + ") LIMIT 1", Long.class);
+        if (!remaining.isEmpty()) {
+            log.info("Partition {} still has rows awaiting archival", name);
+            return;
+        }
+        log.info("Dropping empty payments partition {}", name);
+        jdbcTemplate.execute("ALTER TABLE payments DROP PARTITION " + name);
+    }
+}
@@ -0,0 +1,180 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.PaymentStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Payment counts per tenant, hour and zip-code prefix. Each payment increments a striped
+ * in-memory counter; the counters are periodically added to payment_rollups, and the stats
+ * endpoint reads that small table instead of aggregating payments. Counts start when the
+ * feature is deployed and survive archival, since payments are never rescanned.
+ */
+@Service
+@Slf4j
+public class PaymentRollupService {
+
+    public enum GroupBy {
+        HOUR,
+        ZIP_PREFIX
+    }
+
+    private static final String UPDATE_ROLLUP =
+        "UPDATE payment_rollups SET payment_count = payment_count + ? " +
+        "WHERE tenant_id = ? AND bucket_hour = ? AND zip_prefix = ?";
+
+    private static final String INSERT_ROLLUP =
+        "INSERT INTO payment_rollups (tenant_id, bucket_hour, zip_prefix, payment_count) VALUES (?, ?, ?, ?)";
+
+    // Width of payment_rollups.zip_prefix; a longer prefix would make every flush fail
+    static final int MAX_ZIP_PREFIX_LENGTH = 5;
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int zipPrefixLength;
+
+    // Counts not yet added to payment_rollups
+    private final Map<RollupKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public PaymentRollupService(JdbcTemplate jdbcTemplate,
+                                @Value("${payment.rollup.zip-prefix-length:3}") int zipPrefixLength) {
+        if (zipPrefixLength < 1 || zipPrefixLength > MAX_ZIP_PREFIX_LENGTH) {
+            throw new IllegalArgumentException(
+                "payment.rollup.zip-prefix-length must be 1-" + MAX_ZIP_PREFIX_LENGTH + ": " + zipPrefixLength);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.zipPrefixLength = zipPrefixLength;
+    }
+
+    /**
+     * Counts a new payment once the current transaction, if any, commits
+     */
+    public void record(String tenantId, String zipCode, LocalDateTime createdAt) {
+        RollupKey key = new RollupKey(tenantId,
+            (createdAt != null ? createdAt : LocalDateTime.now()).truncatedTo(ChronoUnit.HOURS), zipPrefix(zipCode));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(key);
+            }
+        });
+    }
+
+    /**
+     * Adds the pending counts to payment_rollups. On a database error the unflushed counts are
+     * kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${payment.rollup.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        LocalDateTime idleCutoff = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        for (Map.Entry<RollupKey, LongAdder> entry : pending.entrySet()) {
+            RollupKey key = entry.getKey();
+            long count = entry.getValue().sumThenReset();
+            if (count == 0) {
+                // Payments are counted moments after creation, so buckets this old no longer change
+                if (key.bucketHour().isBefore(idleCutoff)) {
+                    pending.remove(key, entry.getValue());
+                }
+                continue;
+            }
+            try {
+                addToRollup(key, count);
+            } catch (DataAccessException e) {
+                entry.getValue().add(count);
+                log.warn("Unable to flush payment rollups, retrying next run: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Payment counts in [from, to) grouped by hour or zip-code prefix, including counts this
+     * instance has not flushed yet. Counts pending on other instances appear within one flush
+     * interval.
+     */
+    @Transactional(readOnly = true)
+    public PaymentStatsDTO getStats(String tenantId, GroupBy groupBy, LocalDateTime from, LocalDateTime to) {
+        String column = groupBy == GroupBy.HOUR ? "bucket_hour" : "zip_prefix";
+        Map<String, Long> counts = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT " + column + ", SUM(payment_count) FROM payment_rollups " +
+            "WHERE tenant_id = ? AND bucket_hour >= ? AND bucket_hour < ? GROUP BY " + column,
+            rs -> {
+                String bucket = groupBy == GroupBy.HOUR
+                    ? rs.getTimestamp(1).toLocalDateTime().format(HOUR_FORMAT)
+                    : rs.getString(1);
+                counts.merge(bucket, rs.getLong(2), Long::sum);
+            },
+            tenantId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        pending.forEach((key, adder) -> {
+            if (key.tenantId().equals(tenantId) && !key.bucketHour().isBefore(from) && key.bucketHour().isBefore(to)) {
+                String bucket = groupBy == GroupBy.HOUR ? key.bucketHour().format(HOUR_FORMAT) : key.zipPrefix();
+                counts.merge(bucket, adder.sum(), Long::sum);
+            }
+        });
+
+        List<PaymentStatsDTO.Bucket> buckets = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) {
+                buckets.add(new PaymentStatsDTO.Bucket(entry.getKey(), entry.getValue()));
+                total += entry.getValue();
+            }
+        }
+        String groupByName = groupBy == GroupBy.HOUR ? "hour" : "zipPrefix";
+        return new PaymentStatsDTO(groupByName, from, to, total, buckets);
+    }
+
+    private void increment(RollupKey key) {
+        LongAdder adder = pending.get(key);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    private void addToRollup(RollupKey key, long count) {
+        Timestamp hour = Timestamp.valueOf(key.bucketHour());
+        if (jdbcTemplate.update(UPDATE_ROLLUP, count, key.tenantId(), hour, key.zipPrefix()) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_ROLLUP, key.tenantId(), hour, key.zipPrefix(), count);
+        } catch (DuplicateKeyException e) {
+            // Another instance created the row first
+            jdbcTemplate.update(UPDATE_ROLLUP, count, key.tenantId(), hour, key.zipPrefix());
+        }
+    }
+
+    private String zipPrefix(String zipCode) {
+        return zipCode.length() > zipPrefixLength ? zipCode.substring(0, zipPrefixLength) : zipCode;
+    }
+
+    private record RollupKey(String tenantId, LocalDateTime bucketHour, String zipPrefix) {
+    }
+}
@@ -1,52 +1,191 @@
 package com.payment.api.service;
 
 import com.payment.api.dto.PaymentDTO;
+import com.payment.api.dto.PaymentSearchDTO;
 import com.payment.api.entity.Payment;
+import com.payment.api.entity.PaymentStatus;
 import com.payment.api.repository.PaymentRepository;
 import com.payment.api.util.EncryptionUtil;
+import com.payment.api.util.LogSampler;
+import com.payment.api.util.SearchKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
 
+    // Stand-ins for an open date range; both fit a MySQL DATETIME
+    private static final LocalDateTime SEARCH_FROM_ANY = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime SEARCH_TO_ANY = LocalDateTime.of(9999, 1, 1, 0, 0);
+
     private final PaymentRepository paymentRepository;
     private final EncryptionUtil encryptionUtil;
     private final WebhookNotificationService webhookNotificationService;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentTracer paymentTracer;
+    private final PaymentEventFeed paymentEventFeed;
+    private final PaymentRollupService paymentRollupService;
+    private final LogSampler logSampler;
 
+    /**
+     * Creates a payment on the bounded persistence executor, freeing the calling request thread
+     */
+    @Async("persistenceExecutor")
     @Transactional
-    public PaymentDTO.Response createPayment(PaymentDTO.CreateRequest request) {
-        log.info("Creating payment for {} {}", request.getFirstName(), request.getLastName());
+    public CompletableFuture<PaymentDTO.Response> createPaymentAsync(String tenantId,
+                                                                    PaymentDTO.CreateRequest request) {
+        return CompletableFuture.completedFuture(createPayment(tenantId, request));
+    }
 
+    @Transactional
+    public PaymentDTO.Response createPayment(String tenantId, PaymentDTO.CreateRequest request) {
         // Encrypt card number
+        long encryptionStart = System.nanoTime();
         String encryptedCardNumber = encryptionUtil.encrypt(request.getCardNumber());
         String maskedCardNumber = encryptionUtil.maskCardNumber(request.getCardNumber());
+        String cardFingerprint = encryptionUtil.fingerprint(request.getCardNumber());
+        long insertStart = System.nanoTime();
+        paymentMetrics.recordStage(PaymentMetrics.STAGE_ENCRYPTION, insertStart - encryptionStart);
+        paymentTracer.recordSpan(PaymentMetrics.STAGE_ENCRYPTION, insertStart - encryptionStart, null);
 
         // Create payment entity
         Payment payment = new Payment();
+        payment.setTenantId(tenantId);
         payment.setFirstName(request.getFirstName());
         payment.setLastName(request.getLastName());
         payment.setZipCode(request.getZipCode());
+        payment.setSearchKey(SearchKeys.lastName(request.getLastName()));
         payment.setCardNumberEncrypted(encryptedCardNumber);
         payment.setCardNumberMasked(maskedCardNumber);
+        payment.setCardFingerprint(cardFingerprint);
 
         // Save payment
+        // IDENTITY ids make save() insert immediately; the commit itself is not included
         Payment savedPayment = paymentRepository.save(payment);
-        log.info("Payment created with ID: {}", savedPayment.getId());
+        long insertNanos = System.nanoTime() - insertStart;
+        paymentMetrics.recordStage(PaymentMetrics.STAGE_INSERT, insertNanos);
+        paymentTracer.recordSpan(PaymentMetrics.STAGE_INSERT, insertNanos, null);
+        paymentTracer.attachPayment(tenantId, savedPayment.getId());
+        paymentRollupService.record(tenantId, savedPayment.getZipCode(), savedPayment.getCreatedAt());
+        if (logSampler.sampleSuccess()) {
+            log.info("Payment {} created (tenant {})", savedPayment.getId(), tenantId);
+        }
 
         // Convert to response DTO
         PaymentDTO.Response response = toResponseDTO(savedPayment);
 
-        // Trigger webhook notifications asynchronously
-        webhookNotificationService.notifyWebhooks(response);
+        // Trigger webhook notifications asynchronously once the payment commits
+        paymentEventFeed.record(tenantId, PaymentStatus.CREATED.eventType(), response);
+        webhookNotificationService.notifyWebhooks(tenantId, PaymentStatus.CREATED.eventType(), response);
 
         return response;
     }
 
+    @Transactional
+    public PaymentDTO.Response authorizePayment(String tenantId, Long id) {
+        return changeStatus(tenantId, id, PaymentStatus.AUTHORIZED);
+    }
+
+    @Transactional
+    public PaymentDTO.Response capturePayment(String tenantId, Long id) {
+        return changeStatus(tenantId, id, PaymentStatus.CAPTURED);
+    }
+
+    @Transactional
+    public PaymentDTO.Response refundPayment(String tenantId, Long id) {
+        return changeStatus(tenantId, id, PaymentStatus.REFUNDED);
+    }
+
+    /**
+     * Moves the payment to the next status and notifies the tenant's webhooks once it commits. The
+     * row stays locked until commit, so status changes for one payment apply one at a time.
+     */
+    private PaymentDTO.Response changeStatus(String tenantId, Long id, PaymentStatus status) {
+        // Another tenant's payment is reported as missing rather than forbidden
+        Payment payment = paymentRepository.findForUpdateByIdAndTenantId(id, tenantId)
+            .orElseThrow(() -> new IllegalArgumentException("Payment not found with ID: " + id));
+
+        if (!payment.getStatus().canTransitionTo(status)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Payment " + id + " is " + payment.getStatus() + " and cannot become " + status);
+        }
+        payment.setStatus(status);
+        log.info("Payment {} is now {}", id, status);
+
+        PaymentDTO.Response response = toResponseDTO(payment);
+        paymentEventFeed.record(tenantId, status.eventType(), response);
+        webhookNotificationService.notifyWebhooks(tenantId, status.eventType(), response);
+        return response;
+    }
+
+    /**
+     * Finds the tenant's most recent payments made with a card via its fingerprint index, without
+     * decrypting any stored card numbers
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentDTO.Response> findPaymentsByCard(String tenantId, String cardNumber, int limit) {
+        String cardFingerprint = encryptionUtil.fingerprint(cardNumber);
+        return paymentRepository.findByTenantIdAndCardFingerprintOrderByIdDesc(
+                tenantId, cardFingerprint, PageRequest.of(0, limit))
+            .stream()
+            .map(this::toResponseDTO)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the tenant's payments by last name, optionally narrowed to a zip-code prefix and a
+     * createdAt range [from, to), newest first. Pages are keyset-based: the cursor names the last
+     * payment returned, so each page costs the same however deep the caller has paged.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @throws ResponseStatusException 400 when the last name has no letters or the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public PaymentSearchDTO searchPayments(String tenantId, String lastName, String zipPrefix,
+                                           LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        String searchKey = SearchKeys.lastName(lastName);
+        if (searchKey.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lastName must contain letters");
+        }
+        LocalDateTime beforeTime = to != null ? to : SEARCH_TO_ANY;
+        long beforeId = 0;
+        if (cursor != null) {
+            SearchCursor after = SearchCursor.decode(cursor);
+            if (after.createdAt().isBefore(beforeTime)) {
+                beforeTime = after.createdAt();
+                beforeId = after.id();
+            }
+        }
+
+        // One extra row tells whether another page exists
+        List<Payment> rows = paymentRepository.search(tenantId, searchKey,
+            zipPrefix != null ? zipPrefix + "%" : "%", from != null ? from : SEARCH_FROM_ANY,
+            beforeTime, beforeId, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Payment last = rows.get(limit - 1);
+            nextCursor = new SearchCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new PaymentSearchDTO(rows.stream().map(this::toResponseDTO).collect(Collectors.toList()), nextCursor);
+    }
+
     private PaymentDTO.Response toResponseDTO(Payment payment) {
         return new PaymentDTO.Response(
             payment.getId(),
@@ -54,7 +193,31 @@ public class PaymentService {
             payment.getLastName(),
             payment.getZipCode(),
             payment.getCardNumberMasked(),
+            payment.getStatus(),
             payment.getCreatedAt()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Position after a search page: the createdAt and ID of its last payment, sent to clients
+     * as an opaque URL-safe token
+     */
+    private record SearchCursor(LocalDateTime createdAt, long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SearchCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new SearchCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+}
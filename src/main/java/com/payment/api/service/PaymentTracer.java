@@ -0,0 +1,131 @@
+package com.payment.api.service;
+
+import com.payment.api.config.RequestIdFilter;
+import com.payment.api.dto.PaymentTraceDTO;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps lightweight timing spans for recent requests, keyed by the server-generated trace ID in
+ * the MDC, so the stages of one payment (validation, encryption, insert, each webhook attempt) can
+ * be looked up by payment ID, by the tenant that owns the payment. The caller's request ID is kept
+ * only as a label: callers may reuse it, across payments or tenants, and must not share a trace.
+ * Only the most recent traces are retained, each linked to at most one payment and holding a
+ * bounded number of spans; work that runs outside a request is not traced.
+ */
+@Component
+public class PaymentTracer {
+
+    private static final int MAX_SPANS_PER_TRACE = 100;
+
+    private final Map<String, Trace> traces;
+    private final Map<Long, String> traceIdsByPayment = new ConcurrentHashMap<>();
+
+    public PaymentTracer(@Value("${payment.trace.max-entries:10000}") int maxEntries) {
+        this.traces = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Trace> eldest) {
+                if (size() <= maxEntries) {
+                    return false;
+                }
+                Long paymentId = eldest.getValue().paymentId;
+                if (paymentId != null) {
+                    traceIdsByPayment.remove(paymentId, eldest.getKey());
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Records a span that ended now and lasted durationNanos, under the current request's trace
+     */
+    public void recordSpan(String name, long durationNanos, String detail) {
+        String traceId = MDC.get(RequestIdFilter.TRACE_MDC_KEY);
+        if (traceId == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now().minusNanos(durationNanos);
+        PaymentTraceDTO.Span span = new PaymentTraceDTO.Span(
+            name, startedAt, durationNanos / 1000, Thread.currentThread().getName(), detail);
+        Trace trace = traceFor(traceId);
+        synchronized (trace) {
+            if (trace.spans.size() < MAX_SPANS_PER_TRACE) {
+                trace.spans.add(span);
+            }
+        }
+    }
+
+    /**
+     * Links the current request's trace to the payment it created for the tenant
+     */
+    public void attachPayment(String tenantId, Long paymentId) {
+        String traceId = MDC.get(RequestIdFilter.TRACE_MDC_KEY);
+        if (traceId == null || paymentId == null) {
+            return;
+        }
+        Trace trace = traceFor(traceId);
+        Long previous;
+        synchronized (trace) {
+            previous = trace.paymentId;
+            trace.tenantId = tenantId;
+            trace.paymentId = paymentId;
+        }
+        // A trace links one payment, so evicting it also drops the only index entry pointing at it
+        if (previous != null && !previous.equals(paymentId)) {
+            traceIdsByPayment.remove(previous, traceId);
+        }
+        traceIdsByPayment.put(paymentId, traceId);
+    }
+
+    /**
+     * The payment's trace; empty when it is not retained or the payment belongs to another tenant
+     */
+    public Optional<PaymentTraceDTO> getTrace(String tenantId, Long paymentId) {
+        String traceId = traceIdsByPayment.get(paymentId);
+        if (traceId == null) {
+            return Optional.empty();
+        }
+        Trace trace;
+        synchronized (traces) {
+            trace = traces.get(traceId);
+        }
+        if (trace == null) {
+            return Optional.empty();
+        }
+        synchronized (trace) {
+            // Another tenant's payment is reported as missing rather than forbidden
+            if (!tenantId.equals(trace.tenantId) || !paymentId.equals(trace.paymentId)) {
+                return Optional.empty();
+            }
+            return Optional.of(new PaymentTraceDTO(trace.requestId, paymentId, new ArrayList<>(trace.spans)));
+        }
+    }
+
+    private Trace traceFor(String traceId) {
+        synchronized (traces) {
+            return traces.computeIfAbsent(traceId, id -> new Trace(MDC.get(RequestIdFilter.MDC_KEY)));
+        }
+    }
+
+    private static final class Trace {
+
+        private final String requestId;
+        private final List<PaymentTraceDTO.Span> spans = new ArrayList<>();
+        private volatile String tenantId;
+        private volatile Long paymentId;
+
+        private Trace(String requestId) {
+            this.requestId = requestId;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.payment.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records, per payment and webhook, the latest event that was delivered successfully
+ * (webhook_deliveries), so deliveries lost to a crash, a rejected task or an interrupted retry
+ * can be found and sent again
+ */
+@Service
+@Slf4j
+public class WebhookDeliveryLog {
+
+    private static final String UPDATE_DELIVERY =
+        "UPDATE webhook_deliveries SET event_type = ?, delivered_at = ? WHERE payment_id = ? AND webhook_id = ?";
+
+    private static final String INSERT_DELIVERY =
+        "INSERT INTO webhook_deliveries (payment_id, webhook_id, tenant_id, event_type, delivered_at) " +
+        "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public WebhookDeliveryLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Marks the event as delivered to the webhook. A failure is only logged: the delivery itself
+     * succeeded, and the worst outcome of a missing record is one duplicate from the sweeper.
+     */
+    public void recordDelivered(String tenantId, Long paymentId, Long webhookId, String eventType) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            if (jdbcTemplate.update(UPDATE_DELIVERY, eventType, now, paymentId, webhookId) > 0) {
+                return;
+            }
+            try {
+                jdbcTemplate.update(INSERT_DELIVERY, paymentId, webhookId, tenantId, eventType, now);
+            } catch (DuplicateKeyException e) {
+                // A concurrent delivery for the same payment and webhook inserted first
+                jdbcTemplate.update(UPDATE_DELIVERY, eventType, now, paymentId, webhookId);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Unable to record delivery of payment {} to webhook {}: {}", paymentId, webhookId, e.getMessage());
+        }
+    }
+
+    /**
+     * Latest delivered event type by payment ID and then webhook ID, for the given payments
+     */
+    public Map<Long, Map<Long, String>> findDelivered(Collection<Long> paymentIds) {
+        Map<Long, Map<Long, String>> delivered = new HashMap<>();
+        if (paymentIds.isEmpty()) {
+            return delivered;
+        }
+        namedParameterJdbcTemplate.query(
+            "SELECT payment_id, webhook_id, event_type FROM webhook_deliveries WHERE payment_id IN (:paymentIds)",
+            Map.of("paymentIds", paymentIds),
+            rs -> {
+                delivered.computeIfAbsent(rs.getLong(1), id -> new HashMap<>()).put(rs.getLong(2), rs.getString(3));
+            });
+        return delivered;
+    }
+}
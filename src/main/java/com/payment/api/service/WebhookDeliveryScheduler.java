@@ -0,0 +1,330 @@
+package com.payment.api.service;
+
+import com.payment.api.config.AdaptiveThreadPoolTaskExecutor;
+import com.payment.api.util.DeficitRoundRobinQueue;
+import com.payment.api.util.RetryBudget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares the webhook executor fairly between tenants. Deliveries wait in per-tenant queues and
+ * every delivery submits a ticket to the executor; whichever thread runs a ticket takes the next
+ * delivery in deficit round-robin order rather than the one that submitted it. A tenant with a
+ * flash sale therefore gets its weighted share of threads while others are busy, and all of
+ * them when it is alone. When the executor is saturated the delivery stays queued and is picked
+ * up by the next thread that finds more deliveries than outstanding tickets.
+ *
+ * First attempts and retries wait in separate lanes. Threads serve first attempts first, but
+ * after freshBurst of them in a row a waiting retry goes next, so retries are delayed rather than
+ * starved. Retries are also limited by a global {@link RetryBudget}, so a partner outage cannot
+ * turn most of the executor's work into retries.
+ *
+ * Deliveries with a coalescing key carry a version, and for each key only the newest version
+ * is sent: a queued first attempt is replaced by a newer one, and an older delivery that is
+ * still waiting anywhere (a retry in the timer or the retry lane, or a first attempt that
+ * arrives late) is dropped once a newer version for the key has been submitted.
+ */
+@Component
+@Slf4j
+public class WebhookDeliveryScheduler {
+
+    // Pause before an attempt that found every slot to its webhook busy tries again
+    static final long BUSY_REQUEUE_DELAY_MS = 50;
+
+    private final AdaptiveThreadPoolTaskExecutor webhookExecutor;
+    private final PaymentMetrics paymentMetrics;
+    private final DeficitRoundRobinQueue<Runnable> firstAttempts;
+    private final DeficitRoundRobinQueue<Runnable> retries;
+    private final RetryBudget retryBudget;
+    private final int freshBurst;
+    private final AtomicInteger pendingTickets = new AtomicInteger();
+    // Holds retries until their backoff has elapsed, without occupying a webhook thread
+    private final ScheduledExecutorService retryTimer;
+
+    // First attempts taken since the last retry; guarded by this
+    private int freshStreak;
+
+    // Newest version per coalescing key while the key has deliveries outstanding; guarded by itself
+    private final Map<Object, KeyVersion> keyVersions = new HashMap<>();
+
+    public WebhookDeliveryScheduler(AdaptiveThreadPoolTaskExecutor webhookExecutor, PaymentMetrics paymentMetrics,
+                                    @Value("${webhook.tenant.weights:}") String weights,
+                                    @Value("${webhook.tenant.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${webhook.retry.fresh-burst:4}") int freshBurst,
+                                    @Value("${webhook.retry.budget.ratio:0.2}") double budgetRatio,
+                                    @Value("${webhook.retry.budget.min-per-second:5}") double budgetMinPerSecond,
+                                    @Value("${webhook.retry.budget.max-tokens:100}") double budgetMaxTokens) {
+        this.webhookExecutor = webhookExecutor;
+        this.paymentMetrics = paymentMetrics;
+        Map<String, Integer> tenantWeights = parseWeights(weights);
+        this.firstAttempts = new DeficitRoundRobinQueue<>(tenant -> tenantWeights.getOrDefault(tenant, 1), queueCapacity);
+        this.retries = new DeficitRoundRobinQueue<>(tenant -> tenantWeights.getOrDefault(tenant, 1), queueCapacity);
+        this.freshBurst = Math.max(1, freshBurst);
+        this.retryBudget = new RetryBudget(budgetRatio, budgetMinPerSecond, budgetMaxTokens);
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        this.retryTimer = timer;
+    }
+
+    /**
+     * Queues a first delivery attempt for the tenant
+     *
+     * @return false when the tenant's queue is full and the delivery was dropped
+     */
+    public boolean submit(String tenantId, Runnable delivery) {
+        return submit(tenantId, null, 0, delivery);
+    }
+
+    /**
+     * Queues a first delivery attempt for the tenant, replacing a still-queued delivery with the
+     * same coalescing key so only the latest one is sent. A delivery older than the newest
+     * version submitted for the key is dropped as coalesced.
+     *
+     * @return false when the tenant's queue is full and the delivery was dropped
+     */
+    public boolean submit(String tenantId, Object coalescingKey, long version, Runnable delivery) {
+        if (!admit(coalescingKey, version)) {
+            paymentMetrics.recordCoalesced(tenantId);
+            return true;
+        }
+        boolean queued = enqueue(firstAttempts, tenantId, coalescingKey,
+            track(tenantId, coalescingKey, version, delivery));
+        if (queued) {
+            retryBudget.deposit();
+        }
+        return queued;
+    }
+
+    /**
+     * Queues a retry in the retry lane once the delay has elapsed, if the retry budget allows it.
+     * A retry that a newer version for its key has superseded, now or by the time it runs, is
+     * dropped as coalesced rather than sent.
+     *
+     * @return false when the retry budget is exhausted and the delivery should be given up
+     */
+    public boolean submitRetry(String tenantId, Object coalescingKey, long version, Runnable delivery,
+                               long delayMs) {
+        if (!admit(coalescingKey, version)) {
+            paymentMetrics.recordCoalesced(tenantId);
+            return true;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            release(coalescingKey);
+            paymentMetrics.recordRetryDenied(tenantId);
+            return false;
+        }
+        schedule(tenantId, coalescingKey, version, delivery, delayMs);
+        return true;
+    }
+
+    /**
+     * Puts back an attempt that found every delivery slot to its webhook busy, through the retry
+     * lane after a short pause. The endpoint did not fail, so unlike a retry this spends no retry
+     * budget.
+     */
+    public void requeueBusy(String tenantId, Object coalescingKey, long version, Runnable delivery) {
+        if (!admit(coalescingKey, version)) {
+            paymentMetrics.recordCoalesced(tenantId);
+            return;
+        }
+        schedule(tenantId, coalescingKey, version, delivery, BUSY_REQUEUE_DELAY_MS);
+    }
+
+    void enqueueRetry(String tenantId, Object coalescingKey, long version, Runnable retry) {
+        if (isSuperseded(coalescingKey, version)) {
+            // Offering it could replace the newer version's retry in the lane
+            release(coalescingKey);
+            paymentMetrics.recordCoalesced(tenantId);
+            return;
+        }
+        enqueue(retries, tenantId, coalescingKey, retry);
+    }
+
+    public int getQueuedDeliveries() {
+        return firstAttempts.size() + retries.size();
+    }
+
+    public int getQueuedRetries() {
+        return retries.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryTimer.shutdownNow();
+    }
+
+    private void schedule(String tenantId, Object coalescingKey, long version, Runnable delivery, long delayMs) {
+        Runnable retry = track(tenantId, coalescingKey, version, delivery);
+        retryTimer.schedule(() -> enqueueRetry(tenantId, coalescingKey, version, retry),
+            delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean enqueue(DeficitRoundRobinQueue<Runnable> lane, String tenantId, Object coalescingKey,
+                            Runnable delivery) {
+        DeficitRoundRobinQueue.Offer offer = lane.offer(tenantId, coalescingKey, delivery);
+        if (offer == DeficitRoundRobinQueue.Offer.REFUSED) {
+            log.error("Webhook queue for tenant {} is full; dropping delivery", tenantId);
+            paymentMetrics.recordDropped(tenantId);
+            release(coalescingKey);
+            return false;
+        }
+        if (offer == DeficitRoundRobinQueue.Offer.REPLACED) {
+            // The replaced delivery's ticket runs this one, and the replaced delivery never runs
+            paymentMetrics.recordCoalesced(tenantId);
+            release(coalescingKey);
+            return true;
+        }
+        pendingTickets.incrementAndGet();
+        try {
+            webhookExecutor.execute(this::runNext);
+        } catch (TaskRejectedException e) {
+            pendingTickets.decrementAndGet();
+            log.warn("Webhook executor saturated; delivery for tenant {} stays queued", tenantId);
+        }
+        return true;
+    }
+
+    private void runNext() {
+        pendingTickets.decrementAndGet();
+        Runnable delivery = next();
+        while (delivery != null) {
+            try {
+                delivery.run();
+            } catch (RuntimeException e) {
+                log.error("Webhook delivery failed", e);
+            }
+            // Take over deliveries whose ticket was rejected while the executor was saturated
+            delivery = getQueuedDeliveries() > pendingTickets.get() ? next() : null;
+        }
+    }
+
+    /**
+     * First attempts before retries, except that a waiting retry goes next once freshBurst first
+     * attempts have been taken since the last one
+     */
+    private synchronized Runnable next() {
+        if (freshStreak >= freshBurst) {
+            Runnable retry = retries.poll();
+            if (retry != null) {
+                freshStreak = 0;
+                return retry;
+            }
+        }
+        Runnable delivery = firstAttempts.poll();
+        if (delivery != null) {
+            freshStreak++;
+            return delivery;
+        }
+        freshStreak = 0;
+        return retries.poll();
+    }
+
+    /**
+     * Wraps a keyed delivery so it is skipped if a newer version for its key arrived while it
+     * waited, and so the key's version entry is released once it has run
+     */
+    private Runnable track(String tenantId, Object coalescingKey, long version, Runnable delivery) {
+        if (coalescingKey == null) {
+            return delivery;
+        }
+        return () -> {
+            try {
+                if (isSuperseded(coalescingKey, version)) {
+                    paymentMetrics.recordCoalesced(tenantId);
+                    return;
+                }
+                delivery.run();
+            } finally {
+                release(coalescingKey);
+            }
+        };
+    }
+
+    /**
+     * Counts a delivery as outstanding for the key
+     *
+     * @return false when a newer version for the key is already outstanding
+     */
+    private boolean admit(Object coalescingKey, long version) {
+        if (coalescingKey == null) {
+            return true;
+        }
+        synchronized (keyVersions) {
+            KeyVersion state = keyVersions.get(coalescingKey);
+            if (state == null) {
+                keyVersions.put(coalescingKey, new KeyVersion(version));
+                return true;
+            }
+            if (version < state.latest) {
+                return false;
+            }
+            state.latest = version;
+            state.outstanding++;
+            return true;
+        }
+    }
+
+    private boolean isSuperseded(Object coalescingKey, long version) {
+        if (coalescingKey == null) {
+            return false;
+        }
+        synchronized (keyVersions) {
+            KeyVersion state = keyVersions.get(coalescingKey);
+            return state != null && state.latest > version;
+        }
+    }
+
+    private void release(Object coalescingKey) {
+        if (coalescingKey == null) {
+            return;
+        }
+        synchronized (keyVersions) {
+            KeyVersion state = keyVersions.get(coalescingKey);
+            if (state != null && --state.outstanding == 0) {
+                keyVersions.remove(coalescingKey);
+            }
+        }
+    }
+
+    /**
+     * Parses "tenant-a=3,tenant-b=2"; tenants not listed have weight 1
+     */
+    static Map<String, Integer> parseWeights(String weights) {
+        Map<String, Integer> parsed = new HashMap<>();
+        if (weights == null || weights.isBlank()) {
+            return parsed;
+        }
+        for (String entry : weights.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid webhook.tenant.weights entry: " + entry);
+            }
+            parsed.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return parsed;
+    }
+
+    private static final class KeyVersion {
+
+        private long latest;
+        private int outstanding = 1;
+
+        private KeyVersion(long latest) {
+            this.latest = latest;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.WebhookStatsDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory rolling delivery statistics per webhook, for spotting the subscriber that is slowing
+ * the webhook pool down. Each webhook has a ring of 10-second buckets covering the last hour; a
+ * bucket holds an attempt latency histogram and a success count. Recording is lock-free: the
+ * first writer into a stale bucket claims it with a CAS and clears it, so a sample racing with
+ * that rollover can be lost, which is acceptable for operational stats.
+ */
+@Component
+public class WebhookDeliveryStats {
+
+    static final long BUCKET_MILLIS = 10_000;
+    static final int BUCKETS = 360;
+
+    /**
+     * Upper bounds in milliseconds of the latency histogram buckets; slower attempts fall in an
+     * overflow bucket reported as the last bound
+     */
+    private static final long[] LATENCY_BOUNDS_MILLIS = {
+        1, 2, 3, 5, 7, 10, 15, 20, 30, 50, 70, 100, 150, 200, 300, 500, 700,
+        1_000, 1_500, 2_000, 3_000, 5_000, 7_000, 10_000, 15_000, 20_000, 30_000, 60_000
+    };
+
+    private static final String[] WINDOW_NAMES = {"1m", "5m", "1h"};
+    private static final long[] WINDOW_MILLIS = {
+        TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(5), TimeUnit.HOURS.toMillis(1)
+    };
+
+    private final Map<Long, Ring> rings = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public WebhookDeliveryStats() {
+        this(System::currentTimeMillis);
+    }
+
+    WebhookDeliveryStats(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Records one delivery attempt to a webhook
+     */
+    public void recordAttempt(Long webhookId, boolean success, long nanos) {
+        rings.computeIfAbsent(webhookId, id -> new Ring())
+            .record(clock.getAsLong() / BUCKET_MILLIS, success, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * Success rate, latency percentiles and throughput over the 1m, 5m and 1h windows; a window
+     * with no recorded attempts reports zero counts and null rates
+     */
+    public WebhookStatsDTO getStats(Long webhookId) {
+        Ring ring = rings.get(webhookId);
+        long currentBucket = clock.getAsLong() / BUCKET_MILLIS;
+        List<WebhookStatsDTO.Window> windows = new ArrayList<>(WINDOW_NAMES.length);
+        for (int i = 0; i < WINDOW_NAMES.length; i++) {
+            int bucketCount = (int) (WINDOW_MILLIS[i] / BUCKET_MILLIS);
+            long[] histogram = new long[LATENCY_BOUNDS_MILLIS.length + 1];
+            long successes = ring == null ? 0 : ring.sum(currentBucket, bucketCount, histogram);
+            windows.add(toWindow(WINDOW_NAMES[i], WINDOW_MILLIS[i], histogram, successes));
+        }
+        return new WebhookStatsDTO(webhookId, windows);
+    }
+
+    /**
+     * Drops the statistics of a deleted webhook
+     */
+    public void remove(Long webhookId) {
+        rings.remove(webhookId);
+    }
+
+    private static WebhookStatsDTO.Window toWindow(String name, long windowMillis, long[] histogram,
+                                                  long successes) {
+        long attempts = 0;
+        for (long count : histogram) {
+            attempts += count;
+        }
+        if (attempts == 0) {
+            return new WebhookStatsDTO.Window(name, 0, 0, null, 0.0, null, null);
+        }
+        // A bucket being cleared concurrently can briefly leave more successes than attempts
+        successes = Math.min(successes, attempts);
+        return new WebhookStatsDTO.Window(name, attempts, successes, (double) successes / attempts,
+            attempts * 1000.0 / windowMillis, percentile(histogram, attempts, 0.50),
+            percentile(histogram, attempts, 0.99));
+    }
+
+    private static long percentile(long[] histogram, long total, double quantile) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return LATENCY_BOUNDS_MILLIS[Math.min(i, LATENCY_BOUNDS_MILLIS.length - 1)];
+            }
+        }
+        return LATENCY_BOUNDS_MILLIS[LATENCY_BOUNDS_MILLIS.length - 1];
+    }
+
+    private static int latencyIndex(long millis) {
+        for (int i = 0; i < LATENCY_BOUNDS_MILLIS.length; i++) {
+            if (millis <= LATENCY_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BOUNDS_MILLIS.length;
+    }
+
+    private static final class Ring {
+
+        private final Bucket[] buckets = new Bucket[BUCKETS];
+
+        Ring() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        void record(long bucketNumber, boolean success, long millis) {
+            Bucket bucket = buckets[Math.floorMod(bucketNumber, BUCKETS)];
+            long owner = bucket.bucketNumber.get();
+            if (owner != bucketNumber) {
+                if (owner > bucketNumber) {
+                    // The clock moved on while this attempt was finishing; the slot belongs to a newer bucket
+                    return;
+                }
+                if (bucket.bucketNumber.compareAndSet(owner, bucketNumber)) {
+                    bucket.clear();
+                }
+            }
+            bucket.latencies.incrementAndGet(latencyIndex(millis));
+            if (success) {
+                bucket.successes.incrementAndGet();
+            }
+        }
+
+        /**
+         * Adds the latency histograms of the last bucketCount buckets into histogram and
+         * returns their success count
+         */
+        long sum(long currentBucket, int bucketCount, long[] histogram) {
+            long successes = 0;
+            for (long number = currentBucket - bucketCount + 1; number <= currentBucket; number++) {
+                Bucket bucket = buckets[Math.floorMod(number, BUCKETS)];
+                if (bucket.bucketNumber.get() != number) {
+                    continue;
+                }
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] += bucket.latencies.get(i);
+                }
+                successes += bucket.successes.get();
+            }
+            return successes;
+        }
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLong bucketNumber = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BOUNDS_MILLIS.length + 1);
+        private final AtomicLong successes = new AtomicLong();
+
+        void clear() {
+            for (int i = 0; i < latencies.length(); i++) {
+                latencies.set(i, 0);
+            }
+            successes.set(0);
+        }
+    }
+}
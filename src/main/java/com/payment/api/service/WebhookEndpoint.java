@@ -0,0 +1,61 @@
+package com.payment.api.service;
+
+import com.payment.api.entity.Webhook;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * An active webhook with its effective delivery policy: the webhook's own settings where set,
+ * the global webhook.* defaults otherwise. One instance is shared by every delivery to the
+ * webhook, so its permits cap concurrent requests to that endpoint across the executor.
+ */
+@Getter
+public class WebhookEndpoint {
+
+    private final Webhook webhook;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxRetryAttempts;
+    private final long initialRetryDelay;
+    private final int maxConcurrency;
+
+    @Getter(AccessLevel.NONE)
+    private final Semaphore permits;
+
+    WebhookEndpoint(Webhook webhook, int connectTimeout, int readTimeout, int maxRetryAttempts,
+                    long initialRetryDelay, int maxConcurrency, Semaphore permits) {
+        this.webhook = webhook;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxRetryAttempts = maxRetryAttempts;
+        this.initialRetryDelay = initialRetryDelay;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = permits;
+    }
+
+    public Long getId() {
+        return webhook.getId();
+    }
+
+    public String getUrl() {
+        return webhook.getUrl();
+    }
+
+    /**
+     * Takes a free slot to this endpoint without waiting, so a saturated endpoint never parks a
+     * shared webhook thread; the caller retries later through the retry lane instead
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    Semaphore permits() {
+        return permits;
+    }
+}
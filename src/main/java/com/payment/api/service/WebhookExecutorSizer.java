@@ -0,0 +1,172 @@
+package com.payment.api.service;
+
+import com.payment.api.config.AdaptiveThreadPoolTaskExecutor;
+import com.payment.api.dto.ExecutorSizingDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resizes the webhook executor from what it observed over the last interval. The thread count
+ * follows Little's law, completions per second times average run time, divided by the target
+ * utilization. It grows by a quarter when tasks waited longer than the target or were rejected,
+ * and shrinks by at most one thread per interval. The queue is sized so a full queue drains
+ * within max-queue-wait at the new thread count. A manual override suspends adjustment until
+ * adaptive sizing is resumed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookExecutorSizer {
+
+    static final String MODE_ADAPTIVE = "adaptive";
+    static final String MODE_OVERRIDE = "override";
+
+    private final AdaptiveThreadPoolTaskExecutor webhookExecutor;
+
+    @Value("${webhook.executor.adaptive:true}")
+    private boolean adaptive;
+
+    @Value("${webhook.executor.min-threads:2}")
+    private int minThreads;
+
+    @Value("${webhook.executor.max-threads:50}")
+    private int maxThreads;
+
+    @Value("${webhook.executor.min-queue-capacity:50}")
+    private int minQueueCapacity;
+
+    @Value("${webhook.executor.max-queue-capacity:5000}")
+    private int maxQueueCapacity;
+
+    @Value("${webhook.executor.target-utilization:0.75}")
+    private double targetUtilization;
+
+    @Value("${webhook.executor.target-queue-wait-ms:1000}")
+    private long targetQueueWaitMillis;
+
+    @Value("${webhook.executor.max-queue-wait-ms:60000}")
+    private long maxQueueWaitMillis;
+
+    private volatile boolean overridden;
+    private volatile Observation lastObservation = new Observation(0, 0, 0, 0);
+    private volatile LocalDateTime adjustedAt;
+    private long lastSampleNanos = System.nanoTime();
+
+    @Scheduled(fixedDelayString = "${webhook.executor.adjust-interval-ms:5000}",
+        initialDelayString = "${webhook.executor.adjust-interval-ms:5000}")
+    public synchronized void adjust() {
+        long now = System.nanoTime();
+        AdaptiveThreadPoolTaskExecutor.Sample sample = webhookExecutor.sample();
+        long intervalNanos = Math.max(1, now - lastSampleNanos);
+        lastSampleNanos = now;
+        lastObservation = Observation.of(sample, intervalNanos);
+
+        if (!adaptive || overridden) {
+            return;
+        }
+        int threads = webhookExecutor.getCorePoolSize();
+        int queueCapacity = webhookExecutor.getQueueLimit();
+        Plan plan = plan(sample, intervalNanos, threads, queueCapacity, webhookExecutor.getActiveCount(),
+            webhookExecutor.getQueuedTasks());
+        if (plan.threads() != threads || plan.queueCapacity() != queueCapacity) {
+            log.info("Resizing webhook executor from {} threads/{} queue to {}/{} ({})", threads, queueCapacity,
+                plan.threads(), plan.queueCapacity(), lastObservation);
+            webhookExecutor.resize(plan.threads(), plan.queueCapacity());
+            adjustedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Sets the size by hand and stops adaptive adjustment until {@link #resumeAdaptive()}
+     */
+    public synchronized ExecutorSizingDTO override(int threads, int queueCapacity) {
+        log.info("Webhook executor manually resized to {} threads/{} queue", threads, queueCapacity);
+        overridden = true;
+        webhookExecutor.resize(threads, queueCapacity);
+        adjustedAt = LocalDateTime.now();
+        return getSizing();
+    }
+
+    public synchronized ExecutorSizingDTO resumeAdaptive() {
+        log.info("Webhook executor returned to adaptive sizing");
+        overridden = false;
+        return getSizing();
+    }
+
+    public ExecutorSizingDTO getSizing() {
+        Observation observation = lastObservation;
+        return new ExecutorSizingDTO(
+            "webhookExecutor",
+            adaptive && !overridden ? MODE_ADAPTIVE : MODE_OVERRIDE,
+            webhookExecutor.getCorePoolSize(),
+            webhookExecutor.getQueueLimit(),
+            webhookExecutor.getActiveCount(),
+            webhookExecutor.getQueuedTasks(),
+            minThreads,
+            maxThreads,
+            minQueueCapacity,
+            maxQueueCapacity,
+            observation.tasksPerSecond(),
+            observation.avgQueueWaitMillis(),
+            observation.avgRunMillis(),
+            observation.rejected(),
+            adjustedAt
+        );
+    }
+
+    Plan plan(AdaptiveThreadPoolTaskExecutor.Sample sample, long intervalNanos, int threads, int queueCapacity,
+              int active, int queued) {
+        if (sample.completed() == 0) {
+            // Nothing finished: either idle, or every thread is held by a slow endpoint
+            if (queued > 0 || sample.refused() > 0) {
+                return new Plan(clampThreads(threads + growthStep(threads)), queueCapacity);
+            }
+            return new Plan(clampThreads(active == 0 ? threads - 1 : threads), queueCapacity);
+        }
+
+        double seconds = intervalNanos / 1e9;
+        double avgRunSeconds = sample.runNanos() / 1e9 / sample.completed();
+        double avgQueueWaitMillis = sample.queueWaitNanos() / 1e6 / sample.completed();
+        double offeredPerSecond = (sample.completed() + sample.refused()) / seconds;
+
+        int target = (int) Math.ceil(offeredPerSecond * avgRunSeconds / targetUtilization);
+        if (avgQueueWaitMillis > targetQueueWaitMillis || sample.refused() > 0) {
+            target = Math.max(target, threads + growthStep(threads));
+        } else if (target < threads) {
+            target = threads - 1;
+        }
+        target = clampThreads(target);
+
+        double drainSeconds = maxQueueWaitMillis / 1000.0;
+        long queueTarget = (long) Math.ceil(target * drainSeconds / Math.max(avgRunSeconds, 1e-3));
+        return new Plan(target, (int) Math.max(minQueueCapacity, Math.min(maxQueueCapacity, queueTarget)));
+    }
+
+    private int clampThreads(int threads) {
+        return Math.max(minThreads, Math.min(maxThreads, threads));
+    }
+
+    private static int growthStep(int threads) {
+        return Math.max(1, threads / 4);
+    }
+
+    record Plan(int threads, int queueCapacity) {
+    }
+
+    record Observation(double tasksPerSecond, double avgQueueWaitMillis, double avgRunMillis, long rejected) {
+
+        static Observation of(AdaptiveThreadPoolTaskExecutor.Sample sample, long intervalNanos) {
+            long completed = sample.completed();
+            return new Observation(
+                completed / (intervalNanos / 1e9),
+                completed > 0 ? sample.queueWaitNanos() / 1e6 / completed : 0,
+                completed > 0 ? sample.runNanos() / 1e6 / completed : 0,
+                sample.refused());
+        }
+    }
+}
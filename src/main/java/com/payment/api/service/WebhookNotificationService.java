@@ -1,17 +1,21 @@
 package com.payment.api.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.config.MdcTaskDecorator;
+import com.payment.api.config.RequestIdFilter;
 import com.payment.api.dto.PaymentDTO;
 import com.payment.api.dto.WebhookEventDTO;
-import com.payment.api.entity.Webhook;
+import com.payment.api.util.LogSampler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,96 +27,180 @@ public class WebhookNotificationService {
 
     private final WebhookService webhookService;
     private final ObjectMapper objectMapper;
-
-    @Value("${webhook.retry.max-attempts:3}")
-    private int maxRetryAttempts;
-
-    @Value("${webhook.retry.initial-delay:5000}")
-    private long initialRetryDelay;
-
-    @Value("${webhook.timeout.connect:5000}")
-    private int connectTimeout;
-
-    @Value("${webhook.timeout.read:10000}")
-    private int readTimeout;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentTracer paymentTracer;
+    private final WebhookDeliveryStats webhookDeliveryStats;
+    private final WebhookDeliveryScheduler webhookDeliveryScheduler;
+    private final WebhookDeliveryLog webhookDeliveryLog;
+    private final LogSampler logSampler;
+    private final MdcTaskDecorator mdcTaskDecorator = new MdcTaskDecorator();
 
     /**
-     * Asynchronously notify all active webhooks about a new payment
+     * Queues a notification of the payment event to each of the tenant's active webhooks once the
+     * current transaction, if any, commits, so partners never hear of a change that was rolled
+     * back. The deliveries run on the webhook executor in tenant-fair order. A delivery of an
+     * earlier event for the same payment that is still queued for a webhook is replaced, so only
+     * the payment's latest state is sent.
      */
-    @Async
-    public void notifyWebhooks(PaymentDTO.Response payment) {
-        log.info("Starting webhook notifications for payment ID: {}", payment.getId());
+    public void notifyWebhooks(String tenantId, String eventType, PaymentDTO.Response payment) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queueDeliveries(tenantId, eventType, payment);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                queueDeliveries(tenantId, eventType, payment);
+            }
+        });
+    }
 
-        List<Webhook> activeWebhooks = webhookService.getActiveWebhooks();
+    private void queueDeliveries(String tenantId, String eventType, PaymentDTO.Response payment) {
+        List<WebhookEndpoint> activeWebhooks = webhookService.getActiveEndpoints(tenantId);
         
         if (activeWebhooks.isEmpty()) {
-            log.info("No active webhooks to notify");
             return;
         }
+        log.debug("Queueing {} notifications of {} for payment {}",
+            activeWebhooks.size(), eventType, payment.getId());
 
         WebhookEventDTO event = new WebhookEventDTO(
-            "PAYMENT_CREATED",
+            eventType,
             LocalDateTime.now(),
             payment
         );
 
-        for (Webhook webhook : activeWebhooks) {
-            notifyWebhookWithRetry(webhook, event);
+        for (WebhookEndpoint webhook : activeWebhooks) {
+            DeliveryKey key = new DeliveryKey(payment.getId(), webhook.getId());
+            long deliveryStart = System.nanoTime();
+            // Deliveries run on whichever thread the scheduler picks, so each carries its own MDC
+            webhookDeliveryScheduler.submit(tenantId, key, version(event),
+                mdcTaskDecorator.decorate(() -> attemptDelivery(tenantId, key, webhook, event, 1, deliveryStart)));
         }
     }
 
     /**
-     * Notify a single webhook with retry mechanism
+     * Sends the payment event to one webhook again, for deliveries the reconciliation sweeper
+     * found missing. Redeliveries go through the retry lane, so they are paced by the retry
+     * budget and never crowd out first attempts.
+     *
+     * @return false when the retry budget is exhausted and nothing was queued
+     */
+    public boolean redeliver(String tenantId, String eventType, PaymentDTO.Response payment, WebhookEndpoint webhook) {
+        WebhookEventDTO event = new WebhookEventDTO(eventType, LocalDateTime.now(), payment);
+        DeliveryKey key = new DeliveryKey(payment.getId(), webhook.getId());
+        long deliveryStart = System.nanoTime();
+        return webhookDeliveryScheduler.submitRetry(tenantId, key, version(event),
+            mdcTaskDecorator.decorate(() -> attemptDelivery(tenantId, key, webhook, event, 1, deliveryStart)), 0);
+    }
+
+    /**
+     * Makes one delivery attempt using the webhook's own timeout and concurrency policy. A failed
+     * attempt is retried through the scheduler's retry lane after an exponential backoff, so no
+     * thread is held while waiting, until the webhook's retry limit or the global retry budget is
+     * reached. When every slot to the webhook is busy nothing is sent, and the attempt is put back
+     * without counting against either limit or the webhook's stats.
      */
-    private void notifyWebhookWithRetry(Webhook webhook, WebhookEventDTO event) {
-        int attempt = 0;
+    private void attemptDelivery(String tenantId, DeliveryKey key, WebhookEndpoint webhook, WebhookEventDTO event,
+                                 int attempt, long deliveryStart) {
+        if (!webhook.tryAcquire()) {
+            paymentMetrics.recordBusyRequeue(webhook.getId());
+            webhookDeliveryScheduler.requeueBusy(tenantId, key, version(event), mdcTaskDecorator.decorate(
+                () -> attemptDelivery(tenantId, key, webhook, event, attempt, deliveryStart)));
+            return;
+        }
+        int maxRetryAttempts = webhook.getMaxRetryAttempts();
+        long attemptStart = System.nanoTime();
         boolean success = false;
+        int responseCode = 0;
+        String outcome;
+        String failure = null;
+        try {
+            log.debug("Attempting to notify webhook {} (attempt {}/{})",
+                webhook.getUrl(), attempt, maxRetryAttempts);
+
+            responseCode = sendWebhookNotification(webhook, event);
+            success = responseCode >= 200 && responseCode < 300;
+            outcome = success ? PaymentMetrics.OUTCOME_SUCCESS : PaymentMetrics.OUTCOME_HTTP_ERROR;
+            if (!success) {
+                failure = "Webhook returned status code: " + responseCode;
+            }
+        } catch (SocketTimeoutException e) {
+            outcome = PaymentMetrics.OUTCOME_TIMEOUT;
+            failure = e.getMessage();
+        } catch (Exception e) {
+            outcome = PaymentMetrics.OUTCOME_ERROR;
+            failure = e.getMessage();
+        } finally {
+            webhook.release();
+        }
+        long attemptNanos = System.nanoTime() - attemptStart;
+        paymentMetrics.recordDeliveryAttempt(webhook.getId(), outcome, responseCode, attemptNanos);
+        webhookDeliveryStats.recordAttempt(webhook.getId(), success, attemptNanos);
+        paymentTracer.recordSpan("webhook.attempt", attemptNanos,
+            "webhook=" + webhook.getId() + " attempt=" + attempt + " outcome=" + outcome
+                + (responseCode > 0 ? " status=" + responseCode : ""));
+
+        if (success) {
+            if (logSampler.sampleSuccess()) {
+                log.info("Notified webhook {} of {} for payment {} (attempt {})",
+                    webhook.getUrl(), event.getEventType(), key.paymentId(), attempt);
+            }
+            webhookDeliveryLog.recordDelivered(tenantId, key.paymentId(), webhook.getId(), event.getEventType());
+            paymentMetrics.recordDelivery(webhook.getId(), true, attempt, System.nanoTime() - deliveryStart);
+            return;
+        }
 
-        while (attempt < maxRetryAttempts && !success) {
-            attempt++;
-            try {
-                log.info("Attempting to notify webhook {} (attempt {}/{})", 
-                    webhook.getUrl(), attempt, maxRetryAttempts);
-
-                sendWebhookNotification(webhook.getUrl(), event);
-                success = true;
-                log.info("Successfully notified webhook: {}", webhook.getUrl());
-
-            } catch (Exception e) {
-                log.error("Failed to notify webhook {} (attempt {}/{}): {}", 
-                    webhook.getUrl(), attempt, maxRetryAttempts, e.getMessage());
-
-                if (attempt < maxRetryAttempts) {
-                    long delay = calculateRetryDelay(attempt);
-                    log.info("Retrying after {} ms", delay);
-                    try {
-                        Thread.sleep(delay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        log.error("Retry interrupted for webhook: {}", webhook.getUrl());
-                        break;
-                    }
-                } else {
-                    log.error("Max retry attempts reached for webhook: {}", webhook.getUrl());
-                }
+        String resolution;
+        if (attempt < maxRetryAttempts) {
+            long delay = calculateRetryDelay(webhook.getInitialRetryDelay(), attempt);
+            Runnable retry = mdcTaskDecorator.decorate(
+                () -> attemptDelivery(tenantId, key, webhook, event, attempt + 1, deliveryStart));
+            if (webhookDeliveryScheduler.submitRetry(tenantId, key, version(event), retry, delay)) {
+                logFailure(webhook, key, attempt, failure, "retrying in " + delay + " ms");
+                return;
             }
+            resolution = "retry budget exhausted, giving up";
+        } else {
+            resolution = "max retry attempts reached, giving up";
+        }
+        logFailure(webhook, key, attempt, failure, resolution);
+        paymentMetrics.recordDelivery(webhook.getId(), false, attempt, System.nanoTime() - deliveryStart);
+    }
+
+    /**
+     * Logs a failed attempt, at most payment.logging.failures-per-window lines per webhook per
+     * window, so an endpoint that is down does not flood the log
+     */
+    private void logFailure(WebhookEndpoint webhook, DeliveryKey key, int attempt, String failure,
+                            String resolution) {
+        long suppressed = logSampler.admitFailure(webhook.getId());
+        if (suppressed < 0) {
+            return;
         }
+        log.error("Failed to notify webhook {} for payment {} (attempt {}/{}): {}; {}{}",
+            webhook.getUrl(), key.paymentId(), attempt, webhook.getMaxRetryAttempts(), failure, resolution,
+            suppressed > 0 ? " (" + suppressed + " earlier failures not logged)" : "");
     }
 
     /**
-     * Send HTTP POST request to webhook endpoint
+     * Send HTTP POST request to webhook endpoint and return the response status code
      */
-    private void sendWebhookNotification(String webhookUrl, WebhookEventDTO event) throws Exception {
-        URL url = new URL(webhookUrl);
+    private int sendWebhookNotification(WebhookEndpoint webhook, WebhookEventDTO event) throws Exception {
+        URL url = new URL(webhook.getUrl());
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
 
         try {
             connection.setRequestMethod("POST");
             connection.setRequestProperty("Content-Type", "application/json");
             connection.setRequestProperty("User-Agent", "PaymentWebhookAPI/1.0");
+            String requestId = MDC.get(RequestIdFilter.MDC_KEY);
+            if (requestId != null) {
+                connection.setRequestProperty(RequestIdFilter.HEADER, requestId);
+            }
             connection.setDoOutput(true);
-            connection.setConnectTimeout(connectTimeout);
-            connection.setReadTimeout(readTimeout);
+            connection.setConnectTimeout(webhook.getConnectTimeout());
+            connection.setReadTimeout(webhook.getReadTimeout());
 
             // Write JSON payload
             String jsonPayload = objectMapper.writeValueAsString(event);
@@ -121,21 +209,27 @@ public class WebhookNotificationService {
                 os.write(input, 0, input.length);
             }
 
-            // Check response code
-            int responseCode = connection.getResponseCode();
-            if (responseCode < 200 || responseCode >= 300) {
-                throw new RuntimeException("Webhook returned status code: " + responseCode);
-            }
-
+            return connection.getResponseCode();
         } finally {
             connection.disconnect();
         }
     }
 
+    /**
+     * Orders a payment's events for coalescing. Statuses only move forward, so a later event
+     * always has a higher ordinal.
+     */
+    private static long version(WebhookEventDTO event) {
+        return event.getPayment().getStatus().ordinal();
+    }
+
     /**
      * Calculate exponential backoff delay
      */
-    private long calculateRetryDelay(int attempt) {
+    private long calculateRetryDelay(long initialRetryDelay, int attempt) {
         return initialRetryDelay * (long) Math.pow(2, attempt - 1);
     }
-}
\ No newline at end of file
+
+    private record DeliveryKey(Long paymentId, Long webhookId) {
+    }
+}
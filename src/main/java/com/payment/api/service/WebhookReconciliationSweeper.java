@@ -0,0 +1,212 @@
+package com.payment.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.entity.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-sends webhook deliveries that were lost. notifyWebhooks only queues deliveries in memory,
+ * so a restart, a full tenant queue or a retry denied by the budget can drop an event without a
+ * trace. Every interval this walks the payment_events recorded in the lookback window and, for
+ * each active webhook, re-queues the event when webhook_deliveries has no successful delivery of
+ * it or of a later event for the same payment. Keying the window on the event time rather than
+ * the payment's creation means a capture or refund of an old payment is still reconciled.
+ * <p>
+ * Events are read in keyset batches on (created_at, id), so each batch is a short range scan of
+ * idx_events_created_at however hot the table is. Events younger than the grace period are
+ * skipped because their first delivery may still be in flight. Receivers may see a duplicate
+ * when a sweep overlaps a slow delivery, which at-least-once delivery already allows. Each run
+ * also deletes webhook_deliveries rows delivered before the window, which no later run reads,
+ * including those left behind by archived payments.
+ * <p>
+ * Every instance would sweep the same window, so this is off by default and should be enabled on
+ * one instance only.
+ */
+@Service
+@Slf4j
+public class WebhookReconciliationSweeper {
+
+    private static final String EVENT_TYPE_PREFIX = "PAYMENT_";
+
+    private static final String SELECT_BATCH =
+        "SELECT id, tenant_id, event_type, payload, created_at " +
+        "FROM payment_events " +
+        "WHERE created_at >= ? AND (created_at > ? OR id > ?) AND created_at < ? " +
+        "ORDER BY created_at, id LIMIT ?";
+
+    private static final String DELETE_DELIVERED_BEFORE =
+        "DELETE FROM webhook_deliveries WHERE delivered_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final WebhookDeliveryLog webhookDeliveryLog;
+    private final WebhookService webhookService;
+    private final WebhookNotificationService webhookNotificationService;
+    private final PaymentMetrics paymentMetrics;
+    private final boolean enabled;
+    private final Duration lookback;
+    private final Duration grace;
+    private final int batchSize;
+    private final int maxRedeliveriesPerRun;
+
+    public WebhookReconciliationSweeper(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                        WebhookDeliveryLog webhookDeliveryLog,
+                                        WebhookService webhookService,
+                                        WebhookNotificationService webhookNotificationService,
+                                        PaymentMetrics paymentMetrics,
+                                        @Value("${webhook.reconcile.enabled:false}") boolean enabled,
+                                        @Value("${webhook.reconcile.lookback-minutes:60}") long lookbackMinutes,
+                                        @Value("${webhook.reconcile.grace-ms:120000}") long graceMs,
+                                        @Value("${webhook.reconcile.batch-size:500}") int batchSize,
+                                        @Value("${webhook.reconcile.max-redeliveries-per-run:1000}")
+                                        int maxRedeliveriesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.webhookDeliveryLog = webhookDeliveryLog;
+        this.webhookService = webhookService;
+        this.webhookNotificationService = webhookNotificationService;
+        this.paymentMetrics = paymentMetrics;
+        this.enabled = enabled;
+        this.lookback = Duration.ofMinutes(lookbackMinutes);
+        this.grace = Duration.ofMillis(graceMs);
+        this.batchSize = batchSize;
+        this.maxRedeliveriesPerRun = maxRedeliveriesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.reconcile.interval-ms:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minus(lookback);
+        int redelivered = reconcile(from, now.minus(grace));
+        if (redelivered > 0) {
+            log.info("Re-queued {} webhook deliveries with no recorded success", redelivered);
+        }
+        int pruned = pruneDeliveredBefore(from);
+        if (pruned > 0) {
+            log.info("Deleted {} webhook delivery records older than the reconciliation window", pruned);
+        }
+    }
+
+    /**
+     * Re-queues missing deliveries for events recorded in [from, until)
+     *
+     * @return the number of deliveries re-queued
+     */
+    synchronized int reconcile(LocalDateTime from, LocalDateTime until) {
+        LocalDateTime afterTime = from;
+        long afterId = 0;
+        int redelivered = 0;
+        while (true) {
+            List<EventRow> rows = jdbcTemplate.query(SELECT_BATCH, this::mapRow,
+                Timestamp.valueOf(afterTime), Timestamp.valueOf(afterTime), afterId, Timestamp.valueOf(until),
+                batchSize);
+            if (rows.isEmpty()) {
+                return redelivered;
+            }
+
+            // Only the latest event of a payment within the batch needs checking; the
+            // delivery of an earlier one is superseded by it
+            Map<Long, EventRow> latest = new LinkedHashMap<>();
+            for (EventRow row : rows) {
+                latest.remove(row.payment().getId());
+                latest.put(row.payment().getId(), row);
+            }
+            Map<Long, Map<Long, String>> delivered = webhookDeliveryLog.findDelivered(latest.keySet());
+            for (EventRow row : latest.values()) {
+                PaymentDTO.Response payment = row.payment();
+                Map<Long, String> deliveredTo = delivered.getOrDefault(payment.getId(), Map.of());
+                for (WebhookEndpoint webhook : webhookService.getActiveEndpoints(row.tenantId())) {
+                    if (deliveredAtOrAfter(deliveredTo.get(webhook.getId()), row.eventType())
+                            || registeredAfter(webhook, row.createdAt())) {
+                        continue;
+                    }
+                    if (redelivered >= maxRedeliveriesPerRun
+                            || !webhookNotificationService.redeliver(row.tenantId(), row.eventType(), payment, webhook)) {
+                        // The rest is picked up by the next run while the window still covers it
+                        log.warn("Stopping reconciliation after {} redeliveries; retry budget or per-run limit reached",
+                            redelivered);
+                        return redelivered;
+                    }
+                    paymentMetrics.recordRedelivery(row.tenantId());
+                    redelivered++;
+                }
+            }
+
+            if (rows.size() < batchSize) {
+                return redelivered;
+            }
+            EventRow last = rows.get(rows.size() - 1);
+            afterTime = last.createdAt();
+            afterId = last.id();
+        }
+    }
+
+    /**
+     * Deletes delivery records older than the given time in batches of batch-size rows, so no
+     * single statement holds locks on a large range
+     *
+     * @return the number of records deleted
+     */
+    int pruneDeliveredBefore(LocalDateTime cutoff) {
+        int deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(DELETE_DELIVERED_BEFORE, Timestamp.valueOf(cutoff), batchSize);
+            deleted += batch;
+        } while (batch >= batchSize);
+        return deleted;
+    }
+
+    /**
+     * Whether the recorded delivery is of this event or a later one. Statuses only move forward,
+     * so a later status means the receiver has already seen this payment past this event.
+     */
+    private static boolean deliveredAtOrAfter(String deliveredType, String eventType) {
+        return deliveredType != null && statusOf(deliveredType).compareTo(statusOf(eventType)) >= 0;
+    }
+
+    private static PaymentStatus statusOf(String eventType) {
+        return PaymentStatus.valueOf(eventType.substring(EVENT_TYPE_PREFIX.length()));
+    }
+
+    /**
+     * Webhooks registered after the event was recorded were never meant to receive it
+     */
+    private static boolean registeredAfter(WebhookEndpoint webhook, LocalDateTime eventTime) {
+        LocalDateTime registeredAt = webhook.getWebhook().getCreatedAt();
+        return registeredAt != null && registeredAt.isAfter(eventTime);
+    }
+
+    private EventRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        long id = rs.getLong("id");
+        try {
+            return new EventRow(id, rs.getString("tenant_id"), rs.getString("event_type"),
+                objectMapper.readValue(rs.getString("payload"), PaymentDTO.Response.class),
+                rs.getTimestamp("created_at").toLocalDateTime());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload for event " + id, e);
+        }
+    }
+
+    private record EventRow(long id, String tenantId, String eventType, PaymentDTO.Response payment,
+                            LocalDateTime createdAt) {
+    }
+}
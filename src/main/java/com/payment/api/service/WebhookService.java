@@ -1,14 +1,24 @@
 package com.payment.api.service;
 
 import com.payment.api.dto.WebhookDTO;
+import com.payment.api.dto.WebhookStatsDTO;
 import com.payment.api.entity.Webhook;
 import com.payment.api.repository.WebhookRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,51 +27,176 @@ import java.util.stream.Collectors;
 public class WebhookService {
 
     private final WebhookRepository webhookRepository;
+    private final WebhookDeliveryStats webhookDeliveryStats;
+
+    @Value("${webhook.retry.max-attempts:3}")
+    private int defaultMaxRetryAttempts;
+
+    @Value("${webhook.retry.initial-delay:5000}")
+    private int defaultInitialRetryDelay;
+
+    @Value("${webhook.timeout.connect:5000}")
+    private int defaultConnectTimeout;
+
+    @Value("${webhook.timeout.read:10000}")
+    private int defaultReadTimeout;
+
+    @Value("${webhook.max-concurrency:10}")
+    private int defaultMaxConcurrency;
+
+    // Snapshot of active webhooks with resolved policies by tenant; null until first loaded or after a change
+    private volatile Map<String, List<WebhookEndpoint>> activeEndpoints;
+    private final AtomicLong registryVersion = new AtomicLong();
 
     @Transactional
-    public WebhookDTO.Response createWebhook(WebhookDTO.CreateRequest request) {
-        log.info("Creating webhook for URL: {}", request.getUrl());
+    public WebhookDTO.Response createWebhook(String tenantId, WebhookDTO.CreateRequest request) {
+        log.info("Creating webhook for URL: {} (tenant {})", request.getUrl(), tenantId);
 
         Webhook webhook = new Webhook();
+        webhook.setTenantId(tenantId);
         webhook.setUrl(request.getUrl());
         webhook.setDescription(request.getDescription());
         webhook.setActive(true);
+        webhook.setConnectTimeoutMs(request.getConnectTimeoutMs());
+        webhook.setReadTimeoutMs(request.getReadTimeoutMs());
+        webhook.setMaxRetryAttempts(request.getMaxRetryAttempts());
+        webhook.setInitialRetryDelayMs(request.getInitialRetryDelayMs());
+        webhook.setMaxConcurrency(request.getMaxConcurrency());
 
         Webhook savedWebhook = webhookRepository.save(webhook);
         log.info("Webhook created with ID: {}", savedWebhook.getId());
+        invalidateActiveEndpointsAfterCommit();
 
         return toResponseDTO(savedWebhook);
     }
 
-    public List<WebhookDTO.Response> getAllWebhooks() {
-        return webhookRepository.findAll().stream()
+    @Transactional(readOnly = true)
+    public List<WebhookDTO.Response> getAllWebhooks(String tenantId) {
+        return webhookRepository.findByTenantId(tenantId).stream()
             .map(this::toResponseDTO)
             .collect(Collectors.toList());
     }
 
-    public List<Webhook> getActiveWebhooks() {
-        return webhookRepository.findByActiveTrue();
+    /**
+     * The tenant's active webhooks with their effective delivery policies, served from memory. The
+     * snapshot is rebuilt after this instance creates or deletes a webhook, and periodically to
+     * pick up changes made by other instances.
+     */
+    public List<WebhookEndpoint> getActiveEndpoints(String tenantId) {
+        Map<String, List<WebhookEndpoint>> endpoints = activeEndpoints;
+        if (endpoints == null) {
+            endpoints = refreshActiveEndpoints();
+        }
+        return endpoints.getOrDefault(tenantId, List.of());
     }
 
-    @Transactional
-    public void deleteWebhook(Long id) {
-        log.info("Deleting webhook with ID: {}", id);
-        
-        if (!webhookRepository.existsById(id)) {
+    @Scheduled(fixedDelayString = "${webhook.registry.refresh-ms:30000}")
+    public synchronized Map<String, List<WebhookEndpoint>> refreshActiveEndpoints() {
+        long version = registryVersion.get();
+        Map<Long, WebhookEndpoint> previous = new HashMap<>();
+        Map<String, List<WebhookEndpoint>> current = activeEndpoints;
+        if (current != null) {
+            current.values().forEach(list -> list.forEach(endpoint -> previous.put(endpoint.getId(), endpoint)));
+        }
+
+        Map<String, List<WebhookEndpoint>> byTenant = new HashMap<>();
+        for (Webhook webhook : webhookRepository.findByActiveTrue()) {
+            byTenant.computeIfAbsent(webhook.getTenantId(), tenant -> new ArrayList<>())
+                .add(toEndpoint(webhook, previous.get(webhook.getId())));
+        }
+        Map<String, List<WebhookEndpoint>> snapshot = new HashMap<>();
+        byTenant.forEach((tenant, endpoints) -> snapshot.put(tenant, List.copyOf(endpoints)));
+        // A webhook changed while loading; use this result once but let the next caller reload
+        if (registryVersion.get() == version) {
+            activeEndpoints = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * This instance's delivery stats for the tenant's webhook
+     */
+    @Transactional(readOnly = true)
+    public WebhookStatsDTO getWebhookStats(String tenantId, Long id) {
+        // Another tenant's webhook is reported as missing rather than forbidden
+        if (webhookRepository.findByIdAndTenantId(id, tenantId).isEmpty()) {
             throw new IllegalArgumentException("Webhook not found with ID: " + id);
         }
-        
-        webhookRepository.deleteById(id);
+        return webhookDeliveryStats.getStats(id);
+    }
+
+    @Transactional
+    public void deleteWebhook(String tenantId, Long id) {
+        log.info("Deleting webhook with ID: {}", id);
+
+        // Another tenant's webhook is reported as missing rather than forbidden
+        Webhook webhook = webhookRepository.findByIdAndTenantId(id, tenantId)
+            .orElseThrow(() -> new IllegalArgumentException("Webhook not found with ID: " + id));
+
+        webhookRepository.delete(webhook);
+        webhookDeliveryStats.remove(id);
+        invalidateActiveEndpointsAfterCommit();
         log.info("Webhook deleted successfully");
     }
 
+    /**
+     * Drops the snapshot once the change is visible, so a reload in between cannot cache stale rows
+     */
+    private void invalidateActiveEndpointsAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateActiveEndpoints();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateActiveEndpoints();
+            }
+        });
+    }
+
+    private void invalidateActiveEndpoints() {
+        registryVersion.incrementAndGet();
+        activeEndpoints = null;
+    }
+
+    /**
+     * Keeps the previous endpoint's permits when the concurrency limit is unchanged, so deliveries
+     * in flight across a reload still count against the same limit
+     */
+    private WebhookEndpoint toEndpoint(Webhook webhook, WebhookEndpoint previous) {
+        int maxConcurrency = orDefault(webhook.getMaxConcurrency(), defaultMaxConcurrency);
+        Semaphore permits = previous != null && previous.getMaxConcurrency() == maxConcurrency
+            ? previous.permits()
+            : new Semaphore(maxConcurrency);
+        return new WebhookEndpoint(
+            webhook,
+            orDefault(webhook.getConnectTimeoutMs(), defaultConnectTimeout),
+            orDefault(webhook.getReadTimeoutMs(), defaultReadTimeout),
+            orDefault(webhook.getMaxRetryAttempts(), defaultMaxRetryAttempts),
+            orDefault(webhook.getInitialRetryDelayMs(), defaultInitialRetryDelay),
+            maxConcurrency,
+            permits
+        );
+    }
+
     private WebhookDTO.Response toResponseDTO(Webhook webhook) {
         return new WebhookDTO.Response(
             webhook.getId(),
+            webhook.getTenantId(),
             webhook.getUrl(),
             webhook.getDescription(),
             webhook.getActive(),
+            orDefault(webhook.getConnectTimeoutMs(), defaultConnectTimeout),
+            orDefault(webhook.getReadTimeoutMs(), defaultReadTimeout),
+            orDefault(webhook.getMaxRetryAttempts(), defaultMaxRetryAttempts),
+            orDefault(webhook.getInitialRetryDelayMs(), defaultInitialRetryDelay),
+            orDefault(webhook.getMaxConcurrency(), defaultMaxConcurrency),
             webhook.getCreatedAt()
         );
     }
-}
\ No newline at end of file
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
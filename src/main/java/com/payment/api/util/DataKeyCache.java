@@ -0,0 +1,131 @@
+package com.payment.api.util;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps unwrapped data keys in memory so most encryptions and decryptions never reach the
+ * {@link KeyProvider}. Every entry expires after a TTL and after a maximum number of uses;
+ * the key used for new encryptions is rotated under the same limits. The cache is bounded,
+ * evicting the entry closest to expiry when full.
+ */
+public class DataKeyCache {
+
+    private final KeyProvider keyProvider;
+    private final long ttlMillis;
+    private final long maxUses;
+    private final int maxEntries;
+
+    private final Map<String, CachedKey> unwrappedKeys = new ConcurrentHashMap<>();
+    private final AtomicLong providerCalls = new AtomicLong();
+    private volatile CachedKey currentKey;
+
+    public DataKeyCache(KeyProvider keyProvider, long ttlMillis, long maxUses, int maxEntries) {
+        this.keyProvider = keyProvider;
+        this.ttlMillis = ttlMillis;
+        this.maxUses = maxUses;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the data key for a new encryption, generating a fresh one once the current key
+     * has expired or reached its usage limit
+     */
+    public CachedKey currentKey() {
+        long now = System.currentTimeMillis();
+        CachedKey key = currentKey;
+        if (key != null && key.tryUse(now)) {
+            return key;
+        }
+        synchronized (this) {
+            key = currentKey;
+            if (key != null && key.tryUse(now)) {
+                return key;
+            }
+            providerCalls.incrementAndGet();
+            KeyProvider.DataKey dataKey = keyProvider.generateDataKey();
+            key = new CachedKey(dataKey.plaintext(), Base64.getEncoder().encodeToString(dataKey.wrapped()), now);
+            key.tryUse(now);
+            currentKey = key;
+            // Values written with this key can be read back without unwrapping
+            cache(new CachedKey(dataKey.plaintext(), key.wrappedKey, now), now);
+            return key;
+        }
+    }
+
+    /**
+     * Returns the plaintext data key for a wrapped key stored alongside a ciphertext
+     */
+    public SecretKeySpec unwrap(String wrappedKey) {
+        long now = System.currentTimeMillis();
+        CachedKey key = unwrappedKeys.get(wrappedKey);
+        if (key != null && key.tryUse(now)) {
+            return key.key;
+        }
+        providerCalls.incrementAndGet();
+        key = new CachedKey(keyProvider.decryptDataKey(Base64.getDecoder().decode(wrappedKey)), wrappedKey, now);
+        key.tryUse(now);
+        cache(key, now);
+        return key.key;
+    }
+
+    /**
+     * Number of generate or unwrap calls made to the key provider
+     */
+    public long getProviderCalls() {
+        return providerCalls.get();
+    }
+
+    private void cache(CachedKey key, long now) {
+        unwrappedKeys.put(key.wrappedKey, key);
+        if (unwrappedKeys.size() <= maxEntries) {
+            return;
+        }
+        unwrappedKeys.values().removeIf(entry -> !entry.isUsable(now));
+        while (unwrappedKeys.size() > maxEntries) {
+            CachedKey oldest = null;
+            for (CachedKey entry : unwrappedKeys.values()) {
+                if (oldest == null || entry.expiresAt < oldest.expiresAt) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            unwrappedKeys.remove(oldest.wrappedKey, oldest);
+        }
+    }
+
+    public final class CachedKey {
+
+        private final SecretKeySpec key;
+        private final String wrappedKey;
+        private final long expiresAt;
+        private final AtomicLong uses = new AtomicLong();
+
+        private CachedKey(byte[] plaintext, String wrappedKey, long now) {
+            this.key = new SecretKeySpec(plaintext, "AES");
+            this.wrappedKey = wrappedKey;
+            this.expiresAt = now + ttlMillis;
+        }
+
+        public SecretKeySpec getKey() {
+            return key;
+        }
+
+        public String getWrappedKey() {
+            return wrappedKey;
+        }
+
+        private boolean tryUse(long now) {
+            return now < expiresAt && uses.incrementAndGet() <= maxUses;
+        }
+
+        private boolean isUsable(long now) {
+            return now < expiresAt && uses.get() < maxUses;
+        }
+    }
+}
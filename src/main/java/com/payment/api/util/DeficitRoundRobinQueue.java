@@ -0,0 +1,141 @@
+package com.payment.api.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * A set of FIFO queues, one per key, served by deficit round-robin. Each turn a key may take as
+ * many items as its weight before the next backlogged key is served, so under contention a key
+ * gets weight / (sum of backlogged weights) of the items polled, while a key that is alone gets
+ * all of them. Every item costs one unit. Thread-safe; a key's queue is dropped once it empties,
+ * so memory follows the keys that currently have a backlog.
+ *
+ * Items may be offered with a coalescing key: while an item with the same coalescing key is still
+ * queued under the same key, the new item replaces it in place instead of queueing behind it.
+ */
+public class DeficitRoundRobinQueue<T> {
+
+    private final ToIntFunction<String> weights;
+    private final int capacityPerKey;
+
+    private final Map<String, Lane<T>> lanes = new HashMap<>();
+    // Backlogged lanes in service order; the head is the lane whose turn it is
+    private final ArrayDeque<Lane<T>> active = new ArrayDeque<>();
+    private int size;
+
+    /**
+     * @param weights items a key may take per turn; values below 1 count as 1
+     * @param capacityPerKey most items queued for one key before offers for it are refused
+     */
+    public DeficitRoundRobinQueue(ToIntFunction<String> weights, int capacityPerKey) {
+        this.weights = weights;
+        this.capacityPerKey = capacityPerKey;
+    }
+
+    /**
+     * Appends the item to the key's queue
+     *
+     * @return false when the key already has capacityPerKey items queued
+     */
+    public boolean offer(String key, T item) {
+        return offer(key, null, item) != Offer.REFUSED;
+    }
+
+    /**
+     * Replaces the queued item with the same coalescing key, keeping its place in line, or appends
+     * the item when there is none. A null coalescing key never replaces anything.
+     */
+    public synchronized Offer offer(String key, Object coalescingKey, T item) {
+        Lane<T> lane = lanes.get(key);
+        if (lane != null && coalescingKey != null) {
+            Slot<T> queued = lane.coalescing.get(coalescingKey);
+            if (queued != null) {
+                queued.item = item;
+                return Offer.REPLACED;
+            }
+        }
+        if (lane == null) {
+            lane = new Lane<>(key);
+            lanes.put(key, lane);
+            active.addLast(lane);
+        } else if (lane.slots.size() >= capacityPerKey) {
+            return Offer.REFUSED;
+        }
+        Slot<T> slot = new Slot<>(coalescingKey, item);
+        lane.slots.addLast(slot);
+        if (coalescingKey != null) {
+            lane.coalescing.put(coalescingKey, slot);
+        }
+        size++;
+        return Offer.QUEUED;
+    }
+
+    /**
+     * Removes and returns the next item in fair order, or null when every queue is empty
+     */
+    public synchronized T poll() {
+        Lane<T> lane = active.peekFirst();
+        if (lane == null) {
+            return null;
+        }
+        if (lane.deficit <= 0) {
+            // Start of this key's turn; the weight is read now so changes apply from the next turn
+            lane.deficit += Math.max(1, weights.applyAsInt(lane.key));
+        }
+        Slot<T> slot = lane.slots.pollFirst();
+        if (slot.coalescingKey != null) {
+            lane.coalescing.remove(slot.coalescingKey);
+        }
+        lane.deficit--;
+        size--;
+
+        if (lane.slots.isEmpty()) {
+            active.pollFirst();
+            lanes.remove(lane.key);
+        } else if (lane.deficit <= 0) {
+            active.addLast(active.pollFirst());
+        }
+        return slot.item;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int size(String key) {
+        Lane<T> lane = lanes.get(key);
+        return lane != null ? lane.slots.size() : 0;
+    }
+
+    public enum Offer {
+        QUEUED,
+        REPLACED,
+        REFUSED
+    }
+
+    private static final class Lane<T> {
+
+        private final String key;
+        private final ArrayDeque<Slot<T>> slots = new ArrayDeque<>();
+        // Queued slots by coalescing key; only slots offered with one are tracked
+        private final Map<Object, Slot<T>> coalescing = new HashMap<>();
+        private int deficit;
+
+        Lane(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Slot<T> {
+
+        private final Object coalescingKey;
+        private T item;
+
+        Slot(Object coalescingKey, T item) {
+            this.coalescingKey = coalescingKey;
+            this.item = item;
+        }
+    }
+}
@@ -1,53 +1,182 @@
 package com.payment.api.util;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Card number encryption with versioned keys.
+ * <p>
+ * New values are written as {@code v<keyId>:<base64(iv || ciphertext || tag)>} using AES-256-GCM
+ * under the active key. Values without a prefix are legacy AES/ECB ciphertexts under
+ * {@code encryption.secret.key} and stay readable until the re-encryption job rewrites them.
+ * <p>
+ * When a {@link KeyProvider} is configured, new values use envelope encryption instead:
+ * {@code e:<base64(wrapped data key)>:<base64(iv || ciphertext || tag)>}, with unwrapped
+ * data keys served from a {@link DataKeyCache}.
+ */
 @Component
 public class EncryptionUtil {
 
     private static final String ALGORITHM = "AES";
-    
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final String DEFAULT_KEY_ID = "1";
+    private static final String ENVELOPE_PREFIX = "e:";
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getDecoder();
+
     @Value("${encryption.secret.key}")
     private String secretKey;
 
     /**
-     * Encrypts a card number using AES-256
+     * Comma-separated id:secret pairs, e.g. "1:oldSecret,2:newSecret". When empty,
+     * key "1" is derived from encryption.secret.key.
+     */
+    @Value("${encryption.keys:}")
+    private String keys;
+
+    @Value("${encryption.active-key-id:" + DEFAULT_KEY_ID + "}")
+    private String activeKeyId;
+
+    @Autowired(required = false)
+    private KeyProvider keyProvider;
+
+    @Value("${encryption.envelope.data-key-ttl-seconds:3600}")
+    private long dataKeyTtlSeconds;
+
+    @Value("${encryption.envelope.data-key-max-uses:1000000}")
+    private long dataKeyMaxUses;
+
+    @Value("${encryption.envelope.cache-size:1000}")
+    private int dataKeyCacheSize;
+
+    private volatile DataKeyCache dataKeyCache;
+
+    /**
+     * HMAC key for card fingerprints. Unlike encryption keys it must never rotate, or stored
+     * fingerprints stop matching; when empty it is derived from encryption.secret.key.
+     */
+    @Value("${encryption.fingerprint.key:}")
+    private String fingerprintKey;
+
+    // Built once on first use; Cipher instances are not thread-safe, so each thread keeps its own
+    private volatile KeyRing keyRing;
+    private final ThreadLocal<Cipher> gcmCipher = ThreadLocal.withInitial(() -> newCipher(GCM_TRANSFORMATION));
+    private final ThreadLocal<Cipher> legacyDecryptCipher = ThreadLocal.withInitial(this::newLegacyDecryptCipher);
+    private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(SecureRandom::new);
+    private final ThreadLocal<Mac> fingerprintMac = ThreadLocal.withInitial(this::newFingerprintMac);
+
+    /**
+     * Encrypts a card number using AES-256-GCM under the active key, or under a cached
+     * data key when envelope encryption is enabled
      */
     public String encrypt(String cardNumber) {
         try {
-            SecretKeySpec key = generateKey(secretKey);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            byte[] encrypted = cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encrypted);
+            byte[] plaintext = cardNumber.getBytes(StandardCharsets.UTF_8);
+            DataKeyCache cache = getDataKeyCache();
+            if (cache != null) {
+                DataKeyCache.CachedKey dataKey = cache.currentKey();
+                byte[] payload = gcmEncrypt(dataKey.getKey(), plaintext);
+                return ENVELOPE_PREFIX + dataKey.getWrappedKey() + ":" + encodeBase64(payload);
+            }
+            KeyRing ring = getKeyRing();
+            return ring.activePrefix + encodeBase64(gcmEncrypt(ring.activeKey, plaintext));
         } catch (Exception e) {
+            gcmCipher.remove();
             throw new RuntimeException("Error encrypting card number", e);
         }
     }
 
     /**
-     * Decrypts an encrypted card number
+     * Decrypts an encrypted card number written in any supported format
      */
     public String decrypt(String encryptedCardNumber) {
         try {
-            SecretKeySpec key = generateKey(secretKey);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, key);
-            byte[] decrypted = cipher.doFinal(Base64.getDecoder().decode(encryptedCardNumber));
+            int separator = encryptedCardNumber.indexOf(':');
+            if (separator < 0) {
+                return decryptLegacy(encryptedCardNumber);
+            }
+
+            SecretKeySpec key;
+            int payloadStart;
+            if (encryptedCardNumber.startsWith(ENVELOPE_PREFIX)) {
+                DataKeyCache cache = getDataKeyCache();
+                int keyEnd = encryptedCardNumber.indexOf(':', ENVELOPE_PREFIX.length());
+                if (cache == null || keyEnd < 0) {
+                    throw new IllegalStateException("Envelope-encrypted value but no key provider is configured");
+                }
+                key = cache.unwrap(encryptedCardNumber.substring(ENVELOPE_PREFIX.length(), keyEnd));
+                payloadStart = keyEnd + 1;
+            } else {
+                String keyId = encryptedCardNumber.substring(1, separator);
+                key = getKeyRing().keys.get(keyId);
+                if (encryptedCardNumber.charAt(0) != 'v' || key == null) {
+                    throw new IllegalStateException("Unknown encryption key version: " + keyId);
+                }
+                payloadStart = separator + 1;
+            }
+
+            byte[] decrypted = gcmDecrypt(key, BASE64_DECODER.decode(encryptedCardNumber.substring(payloadStart)));
             return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception e) {
+            // A failed doFinal can leave the cipher mid-operation; start fresh next time
+            gcmCipher.remove();
             throw new RuntimeException("Error decrypting card number", e);
         }
     }
 
+    /**
+     * Returns true when the value is not encrypted under the active key and should be rewritten
+     */
+    public boolean needsReEncryption(String encryptedCardNumber) {
+        return !encryptedCardNumber.startsWith(getActivePrefix());
+    }
+
+    /**
+     * Decrypts a value under whatever key it was written with and encrypts it under the active key
+     */
+    public String reEncrypt(String encryptedCardNumber) {
+        return encrypt(decrypt(encryptedCardNumber));
+    }
+
+    /**
+     * Prefix carried by every value written in the current format, e.g. "v2:" or "e:"
+     */
+    public String getActivePrefix() {
+        return keyProvider != null ? ENVELOPE_PREFIX : getKeyRing().activePrefix;
+    }
+
+    /**
+     * Returns a keyed HMAC-SHA256 of the card number as 64 hex characters. The same card always
+     * yields the same fingerprint, so it can be indexed and searched without decrypting anything.
+     */
+    public String fingerprint(String cardNumber) {
+        byte[] digest = fingerprintMac.get().doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
     /**
      * Masks a card number showing only last 4 digits
      */
@@ -60,14 +189,153 @@ public class EncryptionUtil {
         return "****" + lastFour;
     }
 
+    private byte[] gcmEncrypt(SecretKeySpec key, byte[] plaintext) throws GeneralSecurityException {
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        random.get().nextBytes(iv);
+
+        Cipher cipher = gcmCipher.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
+        byte[] payload = Arrays.copyOf(iv, GCM_IV_LENGTH + cipher.getOutputSize(plaintext.length));
+        cipher.doFinal(plaintext, 0, plaintext.length, payload, GCM_IV_LENGTH);
+        return payload;
+    }
+
+    private byte[] gcmDecrypt(SecretKeySpec key, byte[] payload) throws GeneralSecurityException {
+        Cipher cipher = gcmCipher.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, payload, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(payload, GCM_IV_LENGTH, payload.length - GCM_IV_LENGTH);
+    }
+
+    private static String encodeBase64(byte[] bytes) {
+        // Base64 output is pure ASCII, so the Latin-1 String constructor is a straight byte copy
+        return new String(BASE64_ENCODER.encode(bytes), StandardCharsets.ISO_8859_1);
+    }
+
+    private String decryptLegacy(String encryptedCardNumber) throws GeneralSecurityException {
+        try {
+            byte[] decrypted = legacyDecryptCipher.get().doFinal(BASE64_DECODER.decode(encryptedCardNumber));
+            return new String(decrypted, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            legacyDecryptCipher.remove();
+            throw e;
+        }
+    }
+
+    private Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create " + transformation + " cipher", e);
+        }
+    }
+
+    /**
+     * ECB carries no IV, so the legacy cipher is initialized once and reused; after
+     * doFinal a cipher returns to its initialized state.
+     */
+    private Cipher newLegacyDecryptCipher() {
+        try {
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, getKeyRing().legacyKey);
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize legacy " + ALGORITHM + " cipher", e);
+        }
+    }
+
+    private Mac newFingerprintMac() {
+        try {
+            String secret = fingerprintKey == null || fingerprintKey.isEmpty()
+                ? "fingerprint:" + secretKey : fingerprintKey;
+            Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            mac.init(new SecretKeySpec(generateKey(secret).getEncoded(), FINGERPRINT_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + FINGERPRINT_ALGORITHM, e);
+        }
+    }
+
+    private DataKeyCache getDataKeyCache() {
+        if (keyProvider == null) {
+            return null;
+        }
+        DataKeyCache cache = dataKeyCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = dataKeyCache;
+                if (cache == null) {
+                    cache = new DataKeyCache(keyProvider, dataKeyTtlSeconds * 1000, dataKeyMaxUses, dataKeyCacheSize);
+                    dataKeyCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private KeyRing getKeyRing() {
+        KeyRing ring = keyRing;
+        if (ring == null) {
+            ring = new KeyRing(secretKey, keys, activeKeyId);
+            keyRing = ring;
+        }
+        return ring;
+    }
+
     /**
-     * Generates a secret key from the provided secret
+     * Generates a 128-bit key from the provided secret, as used by the original unversioned format
      */
-    private SecretKeySpec generateKey(String secret) throws Exception {
+    private static SecretKeySpec generateLegacyKey(String secret) throws GeneralSecurityException {
         MessageDigest sha = MessageDigest.getInstance("SHA-256");
         byte[] key = secret.getBytes(StandardCharsets.UTF_8);
         key = sha.digest(key);
         key = Arrays.copyOf(key, 16); // Use only first 128 bits
         return new SecretKeySpec(key, ALGORITHM);
     }
-}
\ No newline at end of file
+
+    /**
+     * Generates a 256-bit key from the provided secret for versioned GCM keys
+     */
+    private static SecretKeySpec generateKey(String secret) throws GeneralSecurityException {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        return new SecretKeySpec(sha.digest(secret.getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+    }
+
+    private static final class KeyRing {
+
+        final Map<String, SecretKeySpec> keys = new HashMap<>();
+        final SecretKeySpec legacyKey;
+        final String activeKeyId;
+        final SecretKeySpec activeKey;
+        final String activePrefix;
+
+        KeyRing(String secretKey, String keyList, String configuredActiveKeyId) {
+            try {
+                legacyKey = generateLegacyKey(secretKey);
+                if (keyList == null || keyList.isBlank()) {
+                    keys.put(DEFAULT_KEY_ID, generateKey(secretKey));
+                } else {
+                    for (String entry : keyList.split(",")) {
+                        String[] parts = entry.trim().split(":", 2);
+                        if (parts.length != 2 || parts[0].isBlank() || parts[1].isEmpty()) {
+                            throw new IllegalStateException("encryption.keys entries must be id:secret");
+                        }
+                        keys.put(parts[0].trim(), generateKey(parts[1]));
+                    }
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to derive encryption keys", e);
+            }
+
+            activeKeyId = configuredActiveKeyId == null || configuredActiveKeyId.isBlank()
+                ? DEFAULT_KEY_ID : configuredActiveKeyId.trim();
+            if (!activeKeyId.matches("[A-Za-z0-9]+")) {
+                throw new IllegalStateException("Encryption key ids must be alphanumeric: " + activeKeyId);
+            }
+            activeKey = keys.get(activeKeyId);
+            if (activeKey == null) {
+                throw new IllegalStateException("Active encryption key " + activeKeyId + " is not configured");
+            }
+            activePrefix = "v" + activeKeyId + ":";
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.payment.api.util;
+
+/**
+ * Source of data keys for envelope encryption. Implementations wrap data keys under a
+ * master key they never expose, e.g. a cloud KMS or the local file-based stand-in.
+ */
+public interface KeyProvider {
+
+    /**
+     * Generates a new 256-bit data key, returned both in plaintext and wrapped under the master key
+     */
+    DataKey generateDataKey();
+
+    /**
+     * Unwraps a data key previously returned by {@link #generateDataKey()}
+     */
+    byte[] decryptDataKey(byte[] wrappedKey);
+
+    record DataKey(byte[] plaintext, byte[] wrapped) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.payment.api.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Local stand-in for a KMS: keeps a master key in a file and wraps data keys with AES-GCM.
+ * The file is created with a random key on first start. Suitable for development and tests only.
+ */
+@Component
+@ConditionalOnProperty(name = "encryption.envelope.enabled", havingValue = "true")
+@Slf4j
+public class LocalFileKeyProvider implements KeyProvider {
+
+    private static final int KEY_LENGTH = 32;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec masterKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public LocalFileKeyProvider(@Value("${encryption.envelope.master-key-file:./master.key}") String masterKeyFile) {
+        this.masterKey = new SecretKeySpec(loadOrCreateMasterKey(Paths.get(masterKeyFile)), "AES");
+    }
+
+    @Override
+    public DataKey generateDataKey() {
+        byte[] plaintext = new byte[KEY_LENGTH];
+        random.nextBytes(plaintext);
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] wrapped = Arrays.copyOf(iv, IV_LENGTH + cipher.getOutputSize(KEY_LENGTH));
+            cipher.doFinal(plaintext, 0, KEY_LENGTH, wrapped, IV_LENGTH);
+            return new DataKey(plaintext, wrapped);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to wrap data key", e);
+        }
+    }
+
+    @Override
+    public byte[] decryptDataKey(byte[] wrappedKey) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, wrappedKey, 0, IV_LENGTH));
+            return cipher.doFinal(wrappedKey, IV_LENGTH, wrappedKey.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to unwrap data key", e);
+        }
+    }
+
+    private byte[] loadOrCreateMasterKey(Path path) {
+        try {
+            if (Files.exists(path)) {
+                byte[] key = Base64.getDecoder().decode(Files.readString(path, StandardCharsets.US_ASCII).trim());
+                if (key.length != KEY_LENGTH) {
+                    throw new IllegalStateException("Master key in " + path + " must be " + KEY_LENGTH + " bytes");
+                }
+                return key;
+            }
+
+            byte[] key = new byte[KEY_LENGTH];
+            random.nextBytes(key);
+            Files.writeString(path, Base64.getEncoder().encodeToString(key), StandardCharsets.US_ASCII);
+            try {
+                Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                log.warn("Cannot restrict permissions on {}; protect it manually", path);
+            }
+            log.info("Generated new master key at {}", path);
+            return key;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read master key from " + path, e);
+        }
+    }
+}
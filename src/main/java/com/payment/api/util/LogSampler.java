@@ -0,0 +1,80 @@
+package com.payment.api.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which hot-path events are worth a log line. Successes are sampled, one in
+ * successSampleRate. Failures are rate-limited per key, such as a webhook id, to
+ * failuresPerWindow lines per window; the next line logged for that key reports how many were
+ * left out, so a failing endpoint cannot flood the log and no failure goes uncounted.
+ */
+@Component
+public class LogSampler {
+
+    private final long successSampleRate;
+    private final int failuresPerWindow;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final Map<Object, FailureWindow> failureWindows = new ConcurrentHashMap<>();
+
+    public LogSampler(@Value("${payment.logging.success-sample-rate:100}") long successSampleRate,
+                      @Value("${payment.logging.failures-per-window:10}") int failuresPerWindow,
+                      @Value("${payment.logging.failure-window-ms:60000}") long failureWindowMs) {
+        this(successSampleRate, failuresPerWindow, failureWindowMs, System::nanoTime);
+    }
+
+    LogSampler(long successSampleRate, int failuresPerWindow, long failureWindowMs, LongSupplier nanoClock) {
+        this.successSampleRate = Math.max(1, successSampleRate);
+        this.failuresPerWindow = failuresPerWindow;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(failureWindowMs);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true for the success events that should be logged
+     */
+    public boolean sampleSuccess() {
+        return successSampleRate == 1 || successes.getAndIncrement() % successSampleRate == 0;
+    }
+
+    /**
+     * Counts a failure for the key
+     *
+     * @return -1 when the failure should not be logged, otherwise the number of failures for
+     *         the key that were not logged since the last one that was
+     */
+    public long admitFailure(Object key) {
+        return failureWindows.computeIfAbsent(key, k -> new FailureWindow()).admit(nanoClock.getAsLong());
+    }
+
+    private class FailureWindow {
+
+        private long windowStart = Long.MIN_VALUE;
+        private int logged;
+        private long suppressed;
+
+        synchronized long admit(long now) {
+            if (windowStart == Long.MIN_VALUE || now - windowStart >= windowNanos) {
+                windowStart = now;
+                logged = 0;
+            }
+            if (logged >= failuresPerWindow) {
+                suppressed++;
+                return -1;
+            }
+            logged++;
+            long reported = suppressed;
+            suppressed = 0;
+            return reported;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.payment.api.util;
+
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.service.PaymentMetrics;
+import com.payment.api.service.PaymentTracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Hand-written validator for {@link PaymentDTO.CreateRequest} that replaces the reflective
+ * Bean Validation pass on the create endpoint.
+ * <p>
+ * Each field is checked in a single pass over its characters with no regex or allocation on
+ * the success path, and failures carry exactly the messages declared on the DTO annotations,
+ * so error responses are unchanged. Card numbers that pass the format check must also pass
+ * the Luhn checksum.
+ */
+@Component
+public class PaymentRequestValidator implements Validator {
+
+    static final String LUHN_MESSAGE = "Card number failed checksum validation";
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MIN_CARD_LENGTH = 13;
+    private static final int MAX_CARD_LENGTH = 19;
+
+    @Autowired(required = false)
+    private PaymentMetrics paymentMetrics;
+
+    @Autowired(required = false)
+    private PaymentTracer paymentTracer;
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return PaymentDTO.CreateRequest.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        long start = System.nanoTime();
+        validateRequest((PaymentDTO.CreateRequest) target, errors);
+        long nanos = System.nanoTime() - start;
+        if (paymentMetrics != null) {
+            paymentMetrics.recordStage(PaymentMetrics.STAGE_VALIDATION, nanos);
+        }
+        if (paymentTracer != null) {
+            paymentTracer.recordSpan(PaymentMetrics.STAGE_VALIDATION, nanos,
+                errors.hasErrors() ? errors.getErrorCount() + " error(s)" : null);
+        }
+    }
+
+    private void validateRequest(PaymentDTO.CreateRequest request, Errors errors) {
+        validateName(request.getFirstName(), "firstName", "First name", errors);
+        validateName(request.getLastName(), "lastName", "Last name", errors);
+
+        String zipCode = request.getZipCode();
+        if (isBlank(zipCode)) {
+            errors.rejectValue("zipCode", "NotBlank", "Zip code is required");
+        }
+        if (zipCode != null && !isZipCode(zipCode)) {
+            errors.rejectValue("zipCode", "Pattern",
+                "Zip code must be 5 digits (e.g., 12345) or 5+4 format (e.g., 12345-6789)");
+        }
+
+        String cardNumber = request.getCardNumber();
+        if (isBlank(cardNumber)) {
+            errors.rejectValue("cardNumber", "NotBlank", "Card number is required");
+        }
+        if (cardNumber != null) {
+            if (!isCardNumberFormat(cardNumber)) {
+                errors.rejectValue("cardNumber", "Pattern", "Card number: digits only, length 13-19.");
+            } else if (!passesLuhn(cardNumber)) {
+                errors.rejectValue("cardNumber", "Luhn", LUHN_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Mirrors {@code @NotBlank}, {@code @Size(max = 100)} and {@code @Pattern("^[a-zA-Z\\s'-]+$")}
+     */
+    private static void validateName(String value, String field, String label, Errors errors) {
+        if (isBlank(value)) {
+            errors.rejectValue(field, "NotBlank", label + " is required");
+        }
+        if (value == null) {
+            return;
+        }
+        if (value.length() > MAX_NAME_LENGTH) {
+            errors.rejectValue(field, "Size", label + " must not exceed " + MAX_NAME_LENGTH + " characters");
+        }
+        if (!isNameCharacters(value)) {
+            errors.rejectValue(field, "Pattern",
+                label + " must contain only letters, spaces, hyphens, and apostrophes");
+        }
+    }
+
+    /**
+     * Same definition as Hibernate Validator's {@code @NotBlank}: null, or empty after {@link String#trim()}
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameCharacters(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            // Regex \s is exactly [ \t\n\x0B\f\r]
+            boolean space = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+            if (!letter && !space && c != '\'' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZipCode(String value) {
+        int length = value.length();
+        if (length != 5 && length != 10) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (i == 5 ? c != '-' : !isDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCardNumberFormat(String value) {
+        int length = value.length();
+        if (length < MIN_CARD_LENGTH || length > MAX_CARD_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Luhn mod-10 checksum; expects a digits-only string
+     */
+    static boolean passesLuhn(String digits) {
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
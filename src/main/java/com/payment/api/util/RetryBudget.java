@@ -0,0 +1,66 @@
+package com.payment.api.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that caps retries as a share of first attempts. Every first attempt deposits
+ * ratio tokens and every retry spends one, so retries can never exceed ratio times the traffic;
+ * a small per-second refill keeps retries possible when traffic is light. The bucket holds at
+ * most maxTokens, which bounds the burst of retries after a quiet period.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxTokens;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public RetryBudget(double ratio, double minPerSecond, double maxTokens) {
+        this(ratio, minPerSecond, maxTokens, System::nanoTime);
+    }
+
+    RetryBudget(double ratio, double minPerSecond, double maxTokens, LongSupplier nanoClock) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.maxTokens = maxTokens;
+        this.nanoClock = nanoClock;
+        this.tokens = maxTokens;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Credits the budget for a first attempt
+     */
+    public synchronized void deposit() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Spends one token for a retry
+     *
+     * @return false when the budget is exhausted and the retry should be abandoned
+     */
+    public synchronized boolean tryWithdraw() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    public synchronized double getTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefillNanos) / 1e9 * minPerSecond);
+        lastRefillNanos = now;
+    }
+}
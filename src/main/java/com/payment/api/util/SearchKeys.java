@@ -0,0 +1,28 @@
+package com.payment.api.util;
+
+import java.util.Locale;
+
+/**
+ * Normalized forms of searchable fields. Payments store the normalized last name in search_key
+ * so lookups are an equality match on an indexed column instead of a LIKE over last_name.
+ */
+public final class SearchKeys {
+
+    private SearchKeys() {
+    }
+
+    /**
+     * Lower-cases the name and drops everything but ASCII letters, so "O'Brien", "o brien" and
+     * "OBRIEN" all match. Must stay in step with the backfill statement in database-setup.sql.
+     */
+    public static String lastName(String lastName) {
+        StringBuilder key = new StringBuilder(lastName.length());
+        for (int i = 0; i < lastName.length(); i++) {
+            char c = lastName.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                key.append(c);
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,52 @@
+package com.payment.api.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Tenant (merchant) identifiers, sent by callers in the X-Tenant-Id header. Requests without the
+ * header belong to the default tenant, so single-merchant deployments need no changes.
+ */
+public final class TenantIds {
+
+    public static final String HEADER = "X-Tenant-Id";
+    public static final String DEFAULT_TENANT = "default";
+    // MDC key under which RequestIdFilter records the calling tenant
+    public static final String MDC_KEY = "tenantId";
+
+    private static final int MAX_LENGTH = 64;
+
+    private TenantIds() {
+    }
+
+    /**
+     * Returns the tenant named by the header value, or the default tenant when it is absent
+     *
+     * @throws ResponseStatusException 400 when the value is not 1-64 characters of [A-Za-z0-9-_.]
+     */
+    public static String resolve(String header) {
+        if (header == null) {
+            return DEFAULT_TENANT;
+        }
+        if (!isValid(header)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                HEADER + " must be 1-" + MAX_LENGTH + " characters of letters, digits, '-', '_' or '.'");
+        }
+        return header;
+    }
+
+    public static boolean isValid(String tenantId) {
+        if (tenantId.isEmpty() || tenantId.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < tenantId.length(); i++) {
+            char c = tenantId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
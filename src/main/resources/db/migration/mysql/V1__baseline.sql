@@ -0,0 +1,78 @@
+-- Schema as of the introduction of versioned migrations; matches the JPA entities so the prod
+-- profile's ddl-auto=validate passes. Databases created earlier by ddl-auto=update are
+-- baselined at version 1 (spring.flyway.baseline-on-migrate) and skip this script.
+-- Keep src/test/resources/db/migration/h2 in step.
+
+CREATE TABLE payments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    zip_code VARCHAR(20) NOT NULL,
+    search_key VARCHAR(100),
+    card_number_encrypted VARCHAR(500) NOT NULL,
+    card_number_masked VARCHAR(20) NOT NULL,
+    card_fingerprint VARCHAR(64),
+    status VARCHAR(20) NOT NULL DEFAULT 'CREATED',
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_created_at (created_at),
+    INDEX idx_card_fingerprint (card_fingerprint),
+    INDEX idx_tenant_created_at (tenant_id, created_at),
+    INDEX idx_tenant_search_created (tenant_id, search_key, created_at, id, zip_code)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE payments_archive (
+    id BIGINT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    zip_code VARCHAR(20) NOT NULL,
+    card_number_encrypted VARCHAR(500) NOT NULL,
+    card_number_masked VARCHAR(20) NOT NULL,
+    card_fingerprint VARCHAR(64),
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    INDEX idx_archive_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 ROW_FORMAT=COMPRESSED;
+
+CREATE TABLE webhooks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    url VARCHAR(500) NOT NULL,
+    description VARCHAR(255),
+    active BIT NOT NULL,
+    connect_timeout_ms INT,
+    read_timeout_ms INT,
+    max_retry_attempts INT,
+    initial_retry_delay_ms INT,
+    max_concurrency INT,
+    created_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE payment_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    payment_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_events_tenant_id (tenant_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE payment_rollups (
+    tenant_id VARCHAR(64) NOT NULL,
+    bucket_hour DATETIME(6) NOT NULL,
+    zip_prefix VARCHAR(5) NOT NULL,
+    payment_count BIGINT NOT NULL,
+    PRIMARY KEY (tenant_id, bucket_hour, zip_prefix)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE webhook_deliveries (
+    payment_id BIGINT NOT NULL,
+    webhook_id BIGINT NOT NULL,
+    tenant_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    delivered_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (payment_id, webhook_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
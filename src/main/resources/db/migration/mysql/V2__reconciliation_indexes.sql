@@ -0,0 +1,22 @@
+-- The reconciliation sweeper walks payment_events by event time and prunes webhook_deliveries
+-- by delivery time.
+-- Databases created by ddl-auto=update are baselined at version 1 but already have these indexes
+-- from the entity mappings, and MySQL has no CREATE INDEX IF NOT EXISTS, so each index is only
+-- created when information_schema does not list it.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'payment_events'
+                 AND index_name = 'idx_events_created_at') = 0,
+    'CREATE INDEX idx_events_created_at ON payment_events (created_at, id)',
+    'DO 0');
+PREPARE create_index FROM @ddl;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'webhook_deliveries'
+                 AND index_name = 'idx_deliveries_delivered_at') = 0,
+    'CREATE INDEX idx_deliveries_delivered_at ON webhook_deliveries (delivered_at)',
+    'DO 0');
+PREPARE create_index FROM @ddl;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
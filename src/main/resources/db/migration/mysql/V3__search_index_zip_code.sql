@@ -0,0 +1,16 @@
+-- Appends zip_code to idx_tenant_search_created so the search's zip-prefix filter is checked on
+-- the index entries instead of the table rows. V1 already creates it that way; databases created
+-- by ddl-auto=update or an earlier V1 have the index without zip_code, which is rebuilt here.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'payments'
+                 AND index_name = 'idx_tenant_search_created' AND column_name = 'zip_code') > 0,
+    'DO 0',
+    IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'payments'
+          AND index_name = 'idx_tenant_search_created') > 0,
+        'ALTER TABLE payments DROP INDEX idx_tenant_search_created, '
+            'ADD INDEX idx_tenant_search_created (tenant_id, search_key, created_at, id, zip_code)',
+        'CREATE INDEX idx_tenant_search_created ON payments (tenant_id, search_key, created_at, id, zip_code)'));
+PREPARE rebuild_index FROM @ddl;
+EXECUTE rebuild_index;
+DEALLOCATE PREPARE rebuild_index;
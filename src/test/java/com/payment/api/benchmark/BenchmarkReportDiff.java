@@ -0,0 +1,109 @@
+package com.payment.api.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (e.g. the previous release's baseline and the current run)
+ * and prints one line per benchmark with the relative change. A benchmark is a regression when it
+ * got worse by more than the threshold percentage: slower for time modes, fewer ops for throughput.
+ * <p>
+ * Usage: {@code BenchmarkReportDiff <baseline.json> <current.json> [thresholdPercent] [failOnRegression]}
+ */
+public final class BenchmarkReportDiff {
+
+    private BenchmarkReportDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkReportDiff <baseline.json> <current.json> "
+                + "[thresholdPercent] [failOnRegression]");
+            System.exit(2);
+        }
+        Path baselinePath = Paths.get(args[0]);
+        Path currentPath = Paths.get(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        boolean failOnRegression = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("No baseline at " + baselinePath + "; copy " + currentPath
+                + " there to compare future runs against it.");
+            return;
+        }
+
+        List<String> regressions = compare(read(baselinePath), read(currentPath), threshold);
+        if (!regressions.isEmpty() && failOnRegression) {
+            System.err.println(regressions.size() + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the comparison table and returns the keys of benchmarks that regressed
+     */
+    static List<String> compare(Map<String, Result> baseline, Map<String, Result> current, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-70s %14s %14s %-8s %9s%n", "Benchmark", "Baseline", "Current", "Unit", "Change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %-8s %9s%n", entry.getKey(), "-", now.score(), now.unit(),
+                    "new");
+                continue;
+            }
+
+            double change = (now.score() - before.score()) / before.score() * 100.0;
+            // For time-per-op modes a higher score is worse; for throughput a lower one is
+            double worsening = now.higherIsBetter() ? -change : change;
+            boolean regressed = worsening > threshold;
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+            System.out.printf("%-70s %14.3f %14.3f %-8s %+8.1f%%%s%n", entry.getKey(), before.score(), now.score(),
+                now.unit(), change, regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14.3f %14s %-8s %9s%n", key, baseline.get(key).score(), "-",
+                    baseline.get(key).unit(), "removed");
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Result> read(Path path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            String mode = run.path("mode").asText();
+            String benchmark = run.path("benchmark").asText().replace("com.payment.api.benchmark.", "");
+            StringBuilder key = new StringBuilder(benchmark);
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=')
+                    .append(param.getValue().asText());
+            }
+            key.append(" [").append(mode).append(']');
+
+            JsonNode metric = run.path("primaryMetric");
+            results.put(key.toString(), new Result(metric.path("score").asDouble(),
+                metric.path("scoreUnit").asText(), "thrpt".equals(mode)));
+        }
+        return results;
+    }
+
+    record Result(double score, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.payment.api.benchmark;
+
+import com.payment.api.util.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cached-key, per-thread Cipher EncryptionUtil against the original
+ * derive-and-getInstance-per-call implementation, including decryption of legacy
+ * unversioned values through EncryptionUtil.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+
+    private static final String SECRET_KEY = "BenchSecretKey12345BenchSecretKey";
+    private static final String CARD_NUMBER = "4532015112830366";
+
+    private EncryptionUtil encryptionUtil;
+    private String encrypted;
+    private String legacyEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionUtil = new EncryptionUtil();
+        ReflectionTestUtils.setField(encryptionUtil, "secretKey", SECRET_KEY);
+        encrypted = encryptionUtil.encrypt(CARD_NUMBER);
+        legacyEncrypted = LegacyEncryption.encrypt(SECRET_KEY, CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionUtil.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String decryptLegacyFormat() {
+        return encryptionUtil.decrypt(legacyEncrypted);
+    }
+
+    @Benchmark
+    public String maskCardNumber() {
+        return encryptionUtil.maskCardNumber(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() throws Exception {
+        return LegacyEncryption.encrypt(SECRET_KEY, CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() throws Exception {
+        return LegacyEncryption.decrypt(SECRET_KEY, legacyEncrypted);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String encryptContended() {
+        return encryptionUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacyEncryptContended() throws Exception {
+        return LegacyEncryption.encrypt(SECRET_KEY, CARD_NUMBER);
+    }
+
+    /**
+     * The implementation EncryptionUtil replaced, kept verbatim as the baseline
+     */
+    static final class LegacyEncryption {
+
+        private LegacyEncryption() {
+        }
+
+        static String encrypt(String secret, String cardNumber) throws Exception {
+            Cipher cipher = Cipher.getInstance("AES");
+            cipher.init(Cipher.ENCRYPT_MODE, generateKey(secret));
+            byte[] encrypted = cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(encrypted);
+        }
+
+        static String decrypt(String secret, String encryptedCardNumber) throws Exception {
+            Cipher cipher = Cipher.getInstance("AES");
+            cipher.init(Cipher.DECRYPT_MODE, generateKey(secret));
+            byte[] decrypted = cipher.doFinal(Base64.getDecoder().decode(encryptedCardNumber));
+            return new String(decrypted, StandardCharsets.UTF_8);
+        }
+
+        private static SecretKeySpec generateKey(String secret) throws Exception {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] key = sha.digest(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(Arrays.copyOf(key, 16), "AES");
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(EncryptionBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
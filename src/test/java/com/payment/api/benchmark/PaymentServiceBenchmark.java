@@ -0,0 +1,76 @@
+package com.payment.api.benchmark;
+
+import com.payment.api.PaymentWebhookApiApplication;
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.service.PaymentService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of PaymentService.createPayment (validation excluded) against an in-memory H2
+ * database: encryption, fingerprinting, the JPA insert and transaction, and handing off webhook
+ * notification with no webhooks registered. Tracks the persistence path as a whole, so it is
+ * noisier than the micro-benchmarks and best compared between runs on the same machine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private PaymentDTO.CreateRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PaymentWebhookApiApplication.class)
+            .web(WebApplicationType.NONE)
+            // Command-line arguments so they take precedence over application.properties
+            .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--logging.level.root=WARN",
+                "--logging.level.com.payment.api=WARN",
+                "--logging.level.org.hibernate.SQL=WARN");
+        paymentService = context.getBean(PaymentService.class);
+        request = new PaymentDTO.CreateRequest("John", "Doe", "12345", "4532015112830366");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaymentDTO.Response createPayment() {
+        return paymentService.createPayment("default", request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PaymentDTO.Response createPaymentContended() {
+        return paymentService.createPayment("default", request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(PaymentServiceBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
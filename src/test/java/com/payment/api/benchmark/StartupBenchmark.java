@@ -0,0 +1,178 @@
+package com.payment.api.benchmark;
+
+import com.payment.api.PaymentWebhookApiApplication;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time of the application in fresh JVMs, from process launch to Spring Boot's "Started"
+ * log line, for:
+ * <ul>
+ *   <li>default: the base settings, ddl-auto=update with every bean created eagerly</li>
+ *   <li>prod: the prod profile, Flyway-managed schema with ddl-auto=validate and lazy beans</li>
+ *   <li>prod+appcds: the prod profile started from the packaged jar with the class data sharing
+ *       archive built by {@code -Pappcds}, when that archive exists</li>
+ * </ul>
+ * All runs share one file-based H2 database, so after a warm-up run that applies the migrations
+ * every measured run starts against an existing schema, as a scaled-out instance would.
+ * <p>
+ * Options (all {@code --name=value}): runs, classpath (test classpath for the first two),
+ * jar and cds-archive (for the third), timeout-seconds.
+ */
+public final class StartupBenchmark {
+
+    private static final String STARTED = "Started " + PaymentWebhookApiApplication.class.getSimpleName();
+
+    private final Map<String, String> options;
+    private final Path databaseDir;
+
+    private StartupBenchmark(Map<String, String> options) throws IOException {
+        this.options = options;
+        this.databaseDir = Files.createTempDirectory("startup-benchmark");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new StartupBenchmark(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        int runs = (int) longOption("runs", 5);
+        String classpath = options.getOrDefault("classpath", System.getProperty("java.class.path"));
+
+        List<String> defaultCommand = javaCommand(List.of(), classpath, List.of());
+        List<String> prodCommand = javaCommand(List.of(), classpath, List.of("--spring.profiles.active=prod"));
+        List<String> cdsCommand = cdsCommand(classpath);
+
+        // Applies the migrations, so measured runs all find the schema in place
+        System.out.println("Warming up");
+        measure(prodCommand);
+        measure(defaultCommand);
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        results.put("default", new ArrayList<>());
+        results.put("prod", new ArrayList<>());
+        if (cdsCommand != null) {
+            measure(cdsCommand);
+            results.put("prod+appcds", new ArrayList<>());
+        }
+        // Interleaved so drift in machine load affects every configuration alike
+        for (int i = 0; i < runs; i++) {
+            results.get("default").add(measure(defaultCommand));
+            results.get("prod").add(measure(prodCommand));
+            if (cdsCommand != null) {
+                results.get("prod+appcds").add(measure(cdsCommand));
+            }
+        }
+
+        double baseline = median(results.get("default"));
+        System.out.printf("%-12s %8s %8s %8s %8s%n", "config", "min ms", "p50 ms", "max ms", "vs default");
+        results.forEach((name, millis) -> System.out.printf("%-12s %8d %8.0f %8d %9.2fx%n",
+            name, Collections.min(millis), median(millis), Collections.max(millis), baseline / median(millis)));
+    }
+
+    /**
+     * The prod configuration started from the packaged jar with the archive, or null when the
+     * archive has not been built. H2 and the H2 migrations are test-scoped, so they are appended
+     * after the jar; the archive stays valid because its class path is still a prefix.
+     */
+    private List<String> cdsCommand(String testClasspath) {
+        String archive = options.get("cds-archive");
+        String jar = options.get("jar");
+        if (archive == null || jar == null || !new File(archive).isFile() || !new File(jar).isFile()) {
+            System.out.println("No AppCDS archive found; run with -Pappcds to include prod+appcds");
+            return null;
+        }
+        List<String> classpath = new ArrayList<>(List.of(jar));
+        for (String entry : testClasspath.split(File.pathSeparator)) {
+            String name = new File(entry).getName();
+            if ((name.startsWith("h2-") && name.endsWith(".jar")) || name.equals("test-classes")) {
+                classpath.add(entry);
+            }
+        }
+        return javaCommand(List.of("-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off"),
+            String.join(File.pathSeparator, classpath), List.of("--spring.profiles.active=prod"));
+    }
+
+    private List<String> javaCommand(List<String> jvmOptions, String classpath, List<String> appArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(Arrays.asList("-cp", classpath, PaymentWebhookApiApplication.class.getName(),
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:file:" + databaseDir.resolve("payments").toAbsolutePath(),
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.org.hibernate.SQL=WARN"));
+        command.addAll(appArgs);
+        return command;
+    }
+
+    /**
+     * Launches the command and returns the milliseconds until the application reported it had
+     * started, then shuts it down and waits for it to release the database
+     */
+    private long measure(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(longOption("timeout-seconds", 120));
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(STARTED)) {
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    process.destroy();
+                    process.waitFor(30, TimeUnit.SECONDS);
+                    return millis;
+                }
+                output.add(line);
+                if (System.nanoTime() - start > timeoutNanos) {
+                    break;
+                }
+            }
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+        output.subList(0, Math.max(0, output.size() - 40)).clear();
+        throw new IllegalStateException("Application did not start; last output:\n" + String.join("\n", output));
+    }
+
+    private static double median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2.0;
+    }
+
+    private long longOption(String name, long defaultValue) {
+        String value = options.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+}
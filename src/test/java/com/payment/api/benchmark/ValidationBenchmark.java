@@ -0,0 +1,84 @@
+package com.payment.api.benchmark;
+
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.util.PaymentRequestValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written PaymentRequestValidator against the Bean Validation annotation
+ * path it replaced, both driven through Spring's Errors as the controller does, for a valid
+ * request and for one that fails every field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private SpringValidatorAdapter beanValidator;
+    private PaymentRequestValidator fastValidator;
+    private PaymentDTO.CreateRequest validRequest;
+    private PaymentDTO.CreateRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = new SpringValidatorAdapter(validatorFactory.getValidator());
+        fastValidator = new PaymentRequestValidator();
+        validRequest = new PaymentDTO.CreateRequest("Mary-Jane", "O'Brien", "12345-6789", "4532015112830366");
+        invalidRequest = new PaymentDTO.CreateRequest("John123", "", "ABCDE", "4532-0151");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Errors fastValid() {
+        return validate(fastValidator, validRequest);
+    }
+
+    @Benchmark
+    public Errors annotationValid() {
+        return validate(beanValidator, validRequest);
+    }
+
+    @Benchmark
+    public Errors fastInvalid() {
+        return validate(fastValidator, invalidRequest);
+    }
+
+    @Benchmark
+    public Errors annotationInvalid() {
+        return validate(beanValidator, invalidRequest);
+    }
+
+    private static Errors validate(Validator validator, PaymentDTO.CreateRequest request) {
+        Errors errors = new BeanPropertyBindingResult(request, "createRequest");
+        validator.validate(request, errors);
+        return errors;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ValidationBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
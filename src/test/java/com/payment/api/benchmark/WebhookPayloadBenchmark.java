@@ -0,0 +1,60 @@
+package com.payment.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.dto.WebhookEventDTO;
+import com.payment.api.entity.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the webhook payload with an ObjectMapper configured the way Spring Boot
+ * configures the application's, comparing the String-then-getBytes path WebhookNotificationService
+ * uses with writing bytes directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebhookPayloadBenchmark {
+
+    private ObjectMapper objectMapper;
+    private WebhookEventDTO event;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        PaymentDTO.Response payment = new PaymentDTO.Response(
+            12345L, "Mary-Jane", "O'Brien", "12345-6789", "****0366", PaymentStatus.CREATED,
+            LocalDateTime.parse("2026-02-02T10:30:00"));
+        event = new WebhookEventDTO("payment.created", LocalDateTime.parse("2026-02-02T10:30:01"), payment);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsStringThenBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(WebhookPayloadBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
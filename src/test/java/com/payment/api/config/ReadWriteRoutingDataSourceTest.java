@@ -0,0 +1,151 @@
+package com.payment.api.config;
+
+import com.payment.api.util.TenantIds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        MDC.clear();
+    }
+
+    @Test
+    void readOnlyTransaction_RoutesToReplica() throws Exception {
+        // Arrange
+        ReadWriteRoutingDataSource dataSource = routingDataSource(0);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertEquals(REPLICA_URL, connectedUrl(dataSource));
+    }
+
+    @Test
+    void writeTransaction_RoutesToPrimary() throws Exception {
+        // Arrange
+        ReadWriteRoutingDataSource dataSource = routingDataSource(0);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // Act & Assert
+        assertEquals(PRIMARY_URL, connectedUrl(dataSource));
+    }
+
+    @Test
+    void noTransaction_RoutesToPrimary() throws Exception {
+        assertEquals(PRIMARY_URL, connectedUrl(routingDataSource(0)));
+    }
+
+    @Test
+    void readAfterWrite_StaysOnPrimaryWithinWindow() throws Exception {
+        // Arrange
+        ReadWriteRoutingDataSource dataSource = routingDataSource(60_000);
+        MDC.put(TenantIds.MDC_KEY, "merchant-a");
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        connectedUrl(dataSource);
+
+        // Act
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Assert
+        assertEquals(PRIMARY_URL, connectedUrl(dataSource));
+    }
+
+    @Test
+    void readAfterWrite_OnlyWritingCallerAvoidsLaggingReplica() throws Exception {
+        // Arrange
+        String primaryUrl = "jdbc:h2:mem:lagging-primary;DB_CLOSE_DELAY=-1";
+        String replicaUrl = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+        ReadWriteRoutingDataSource dataSource = routingDataSource(60_000, primaryUrl, replicaUrl);
+        for (String url : new String[] {primaryUrl, replicaUrl}) {
+            try (Connection connection = new DriverManagerDataSource(url).getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE webhooks (id BIGINT PRIMARY KEY)");
+            }
+        }
+        // The replica has not caught up with this insert
+        MDC.put(TenantIds.MDC_KEY, "merchant-a");
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO webhooks VALUES (1)");
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try {
+            // Act
+            boolean writerSees = webhookVisible(dataSource);
+            MDC.put(TenantIds.MDC_KEY, "merchant-b");
+            boolean otherCallerSees = webhookVisible(dataSource);
+
+            // Assert
+            assertTrue(writerSees);
+            assertFalse(otherCallerSees);
+        } finally {
+            for (String url : new String[] {primaryUrl, replicaUrl}) {
+                try (Connection connection = new DriverManagerDataSource(url).getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE webhooks");
+                }
+            }
+        }
+    }
+
+    @Test
+    void readAfterWrite_WithoutCaller_RoutesToReplica() throws Exception {
+        // Arrange
+        ReadWriteRoutingDataSource dataSource = routingDataSource(60_000);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        connectedUrl(dataSource);
+
+        // Act
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Assert
+        assertEquals(REPLICA_URL, connectedUrl(dataSource));
+    }
+
+    private ReadWriteRoutingDataSource routingDataSource(long window) {
+        return routingDataSource(window, PRIMARY_URL, REPLICA_URL);
+    }
+
+    private ReadWriteRoutingDataSource routingDataSource(long window, String primaryUrl, String replicaUrl) {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(window);
+        dataSource.setTargetDataSources(Map.<Object, Object>of(
+            ReadWriteRoutingDataSource.Route.PRIMARY, new DriverManagerDataSource(primaryUrl),
+            ReadWriteRoutingDataSource.Route.REPLICA, new DriverManagerDataSource(replicaUrl)
+        ));
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private static boolean webhookVisible(ReadWriteRoutingDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM webhooks WHERE id = 1")) {
+            rs.next();
+            return rs.getInt(1) == 1;
+        }
+    }
+
+    private String connectedUrl(ReadWriteRoutingDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.startsWith(PRIMARY_URL) ? PRIMARY_URL : url.startsWith(REPLICA_URL) ? REPLICA_URL : url;
+        }
+    }
+}
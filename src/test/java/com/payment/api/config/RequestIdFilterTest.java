@@ -0,0 +1,137 @@
+package com.payment.api.config;
+
+import com.payment.api.util.TenantIds;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdFilterTest {
+
+    private final RequestIdFilter filter = new RequestIdFilter();
+
+    @Test
+    void doFilter_AcceptsCallerRequestIdAndClearsMdcAfterwards() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/payments");
+        request.addHeader(RequestIdFilter.HEADER, "partner-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, response, chainCapturing(seen));
+
+        // Assert
+        assertEquals("partner-123", seen.get());
+        assertEquals("partner-123", response.getHeader(RequestIdFilter.HEADER));
+        assertNull(MDC.get(RequestIdFilter.MDC_KEY));
+    }
+
+    @Test
+    void doFilter_GeneratesIdWhenMissingOrMalformed() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/payments");
+        request.addHeader(RequestIdFilter.HEADER, "bad id\nwith newline");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, response, chainCapturing(seen));
+
+        // Assert
+        assertNotNull(seen.get());
+        assertNotEquals("bad id\nwith newline", seen.get());
+        assertEquals(seen.get(), response.getHeader(RequestIdFilter.HEADER));
+    }
+
+    @Test
+    void doFilter_ReusedRequestIdGetsNewTraceIdPerRequest() throws Exception {
+        // Arrange
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+
+        // Act
+        for (AtomicReference<String> seen : List.of(first, second)) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/payments");
+            request.addHeader(RequestIdFilter.HEADER, "partner-123");
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                    seen.set(MDC.get(RequestIdFilter.TRACE_MDC_KEY));
+                }
+            }));
+        }
+
+        // Assert
+        assertNotNull(first.get());
+        assertNotEquals(first.get(), second.get());
+        assertNull(MDC.get(RequestIdFilter.TRACE_MDC_KEY));
+    }
+
+    @Test
+    void doFilter_PutsCallingTenantInMdc() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/webhooks");
+        request.addHeader(TenantIds.HEADER, "merchant-a");
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                seen.set(MDC.get(TenantIds.MDC_KEY));
+            }
+        }));
+
+        // Assert
+        assertEquals("merchant-a", seen.get());
+        assertNull(MDC.get(TenantIds.MDC_KEY));
+    }
+
+    @Test
+    void mdcTaskDecorator_CarriesRequestIdToPoolThread() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        AtomicReference<String> seen = new AtomicReference<>();
+        Runnable task;
+        MDC.put(RequestIdFilter.MDC_KEY, "req-42");
+        try {
+            task = new MdcTaskDecorator().decorate(() -> seen.set(MDC.get(RequestIdFilter.MDC_KEY)));
+        } finally {
+            MDC.remove(RequestIdFilter.MDC_KEY);
+        }
+
+        try {
+            // Act
+            pool.submit(task).get();
+            Future<String> after = pool.submit(() -> MDC.get(RequestIdFilter.MDC_KEY));
+
+            // Assert
+            assertEquals("req-42", seen.get());
+            assertNull(after.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static MockFilterChain chainCapturing(AtomicReference<String> seen) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                seen.set(MDC.get(RequestIdFilter.MDC_KEY));
+            }
+        });
+    }
+}
@@ -2,22 +2,44 @@ package com.payment.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.payment.api.dto.PaymentDTO;
+import com.payment.api.dto.PaymentSearchDTO;
+import com.payment.api.dto.PaymentStatsDTO;
+import com.payment.api.dto.PaymentTraceDTO;
+import com.payment.api.entity.PaymentStatus;
+import com.payment.api.service.PaymentExportService;
+import com.payment.api.service.PaymentRollupService;
 import com.payment.api.service.PaymentService;
+import com.payment.api.service.PaymentTracer;
+import com.payment.api.util.PaymentRequestValidator;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PaymentController.class)
+@Import(PaymentRequestValidator.class)
 class PaymentControllerTest {
 
     @Autowired
@@ -29,6 +51,15 @@ class PaymentControllerTest {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private PaymentExportService paymentExportService;
+
+    @MockBean
+    private PaymentTracer paymentTracer;
+
+    @MockBean
+    private PaymentRollupService paymentRollupService;
+
     @Test
     void createPayment_ValidRequest_ReturnsCreated() throws Exception {
         // Arrange
@@ -37,16 +68,20 @@ class PaymentControllerTest {
         );
 
         PaymentDTO.Response response = new PaymentDTO.Response(
-            1L, "John", "Doe", "12345", "****0366", LocalDateTime.now()
+            1L, "John", "Doe", "12345", "****0366", PaymentStatus.CREATED, LocalDateTime.now()
         );
 
-        when(paymentService.createPayment(any(PaymentDTO.CreateRequest.class)))
-            .thenReturn(response);
+        when(paymentService.createPaymentAsync(eq("default"), any(PaymentDTO.CreateRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/payments")
+        MvcResult result = mockMvc.perform(post("/api/payments")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isCreated())
             .andExpect(jsonPath("$.id").value(1))
             .andExpect(jsonPath("$.firstName").value("John"))
@@ -147,17 +182,21 @@ class PaymentControllerTest {
         );
 
         PaymentDTO.Response response = new PaymentDTO.Response(
-            1L, "Mary-Jane", "Smith-Jones", "12345", "****0366", LocalDateTime.now()
+            1L, "Mary-Jane", "Smith-Jones", "12345", "****0366", PaymentStatus.CREATED, LocalDateTime.now()
         );
 
         
-        when(paymentService.createPayment(any(PaymentDTO.CreateRequest.class)))
-            .thenReturn(response);
+        when(paymentService.createPaymentAsync(eq("default"), any(PaymentDTO.CreateRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/payments")
+        MvcResult result = mockMvc.perform(post("/api/payments")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isCreated())
             .andExpect(jsonPath("$.firstName").value("Mary-Jane"))
             .andExpect(jsonPath("$.lastName").value("Smith-Jones"));
@@ -171,18 +210,234 @@ class PaymentControllerTest {
         );
 
         PaymentDTO.Response response = new PaymentDTO.Response(
-            1L, "O'Brien", "D'Angelo", "12345", "****0366", LocalDateTime.now()
+            1L, "O'Brien", "D'Angelo", "12345", "****0366", PaymentStatus.CREATED, LocalDateTime.now()
         );
 
-        when(paymentService.createPayment(any(PaymentDTO.CreateRequest.class)))
-            .thenReturn(response);
+        when(paymentService.createPaymentAsync(eq("default"), any(PaymentDTO.CreateRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/payments")
+        MvcResult result = mockMvc.perform(post("/api/payments")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isCreated())
             .andExpect(jsonPath("$.firstName").value("O'Brien"))
             .andExpect(jsonPath("$.lastName").value("D'Angelo"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createPayment_CardFailsLuhnCheck_ReturnsBadRequest() throws Exception {
+        // Arrange
+        PaymentDTO.CreateRequest request = new PaymentDTO.CreateRequest(
+            "John", "Doe", "12345", "4532015112830367"  // Last digit off by one
+        );
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.details[0]").value("cardNumber: Card number failed checksum validation"));
+    }
+
+    @Test
+    void createPayment_ExecutorSaturated_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        PaymentDTO.CreateRequest request = new PaymentDTO.CreateRequest(
+            "John", "Doe", "12345", "4532015112830366"
+        );
+
+        when(paymentService.createPaymentAsync(eq("default"), any(PaymentDTO.CreateRequest.class)))
+            .thenThrow(new TaskRejectedException("persistenceExecutor saturated"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void lookupByCard_ReturnsMatchingPayments() throws Exception {
+        // Arrange
+        PaymentDTO.Response response = new PaymentDTO.Response(
+            1L, "John", "Doe", "12345", "****0366", PaymentStatus.CREATED, LocalDateTime.now()
+        );
+
+        when(paymentService.findPaymentsByCard(eq("default"), eq("4532015112830366"), eq(100)))
+            .thenReturn(List.of(response));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments/lookup-by-card")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new PaymentDTO.CardLookupRequest("4532015112830366"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(1))
+            .andExpect(jsonPath("$[0].cardNumberMasked").value("****0366"));
+    }
+
+    @Test
+    void lookupByCard_TenantHeader_ScopesLookupToTenant() throws Exception {
+        // Arrange
+        when(paymentService.findPaymentsByCard(eq("merchant-a"), eq("4532015112830366"), eq(100)))
+            .thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments/lookup-by-card")
+                .header("X-Tenant-Id", "merchant-a")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new PaymentDTO.CardLookupRequest("4532015112830366"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+
+        verify(paymentService).findPaymentsByCard("merchant-a", "4532015112830366", 100);
+    }
+
+    @Test
+    void createPayment_InvalidTenantHeader_ReturnsBadRequest() throws Exception {
+        // Arrange
+        PaymentDTO.CreateRequest request = new PaymentDTO.CreateRequest(
+            "John", "Doe", "12345", "4532015112830366"
+        );
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments")
+                .header("X-Tenant-Id", "merchant a/../b")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void lookupByCard_InvalidCardNumber_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/payments/lookup-by-card")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new PaymentDTO.CardLookupRequest("4532-0151"))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void authorizePayment_ReturnsUpdatedPayment() throws Exception {
+        // Arrange
+        PaymentDTO.Response response = new PaymentDTO.Response(
+            1L, "John", "Doe", "12345", "****0366", PaymentStatus.AUTHORIZED, LocalDateTime.now()
+        );
+        when(paymentService.authorizePayment("merchant-a", 1L)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments/1/authorize")
+                .header("X-Tenant-Id", "merchant-a"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1))
+            .andExpect(jsonPath("$.status").value("AUTHORIZED"));
+    }
+
+    @Test
+    void refundPayment_NotCaptured_ReturnsConflict() throws Exception {
+        // Arrange
+        when(paymentService.refundPayment("default", 1L))
+            .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Payment 1 is CREATED and cannot become REFUNDED"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/payments/1/refund"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void getPaymentStats_ByZipPrefix_RoundsRangeToHours() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.parse("2026-02-01T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2026-02-02T00:00:00");
+        PaymentStatsDTO stats = new PaymentStatsDTO("zipPrefix", from, to, 3,
+            List.of(new PaymentStatsDTO.Bucket("123", 2), new PaymentStatsDTO.Bucket("945", 1)));
+        when(paymentRollupService.getStats("default", PaymentRollupService.GroupBy.ZIP_PREFIX, from, to))
+            .thenReturn(stats);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/payments/stats")
+                .param("groupBy", "zipPrefix")
+                .param("from", "2026-02-01T00:30:00")
+                .param("to", "2026-02-02T00:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(3))
+            .andExpect(jsonPath("$.buckets[0].key").value("123"))
+            .andExpect(jsonPath("$.buckets[0].count").value(2));
+    }
+
+    @Test
+    void getPaymentStats_InvalidGroupBy_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/payments/stats").param("groupBy", "country"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(paymentRollupService);
+    }
+
+    @Test
+    void searchPayments_ReturnsPageAndCursor() throws Exception {
+        // Arrange
+        PaymentDTO.Response response = new PaymentDTO.Response(
+            1L, "John", "O'Brien", "12345", "****0366", PaymentStatus.CREATED, LocalDateTime.now()
+        );
+        when(paymentService.searchPayments("default", "O'Brien", "123", null, null, null, 20))
+            .thenReturn(new PaymentSearchDTO(List.of(response), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/payments/search")
+                .param("lastName", "O'Brien")
+                .param("zipPrefix", "123"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.payments[0].id").value(1))
+            .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void searchPayments_WildcardZipPrefixOrLimitTooHigh_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/payments/search").param("lastName", "Doe").param("zipPrefix", "1%"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/payments/search").param("lastName", "Doe").param("limit", "101"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/payments/search"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void getPaymentTrace_ReturnsSpansAndEchoesRequestId() throws Exception {
+        // Arrange
+        PaymentTraceDTO trace = new PaymentTraceDTO("req-123", 1L, List.of(
+            new PaymentTraceDTO.Span("insert", LocalDateTime.now(), 850, "persistence-1", null)
+        ));
+        when(paymentTracer.getTrace("default", 1L)).thenReturn(Optional.of(trace));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/payments/1/trace").header("X-Request-Id", "client-abc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Request-Id", "client-abc"))
+            .andExpect(jsonPath("$.requestId").value("req-123"))
+            .andExpect(jsonPath("$.spans[0].name").value("insert"))
+            .andExpect(jsonPath("$.spans[0].durationMicros").value(850));
+    }
+
+    @Test
+    void getPaymentTrace_Unknown_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(paymentTracer.getTrace("default", 99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/payments/99/trace"))
+            .andExpect(status().isNotFound())
+            .andExpect(header().exists("X-Request-Id"));
+    }
+}
@@ -0,0 +1,264 @@
+package com.payment.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.PaymentWebhookApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Self-contained load test: starts the application on an in-memory H2 database, registers a
+ * {@link WebhookReceiver} as the only webhook, drives {@code POST /api/payments} open-loop at a
+ * fixed rate and reports request latency percentiles, payment-to-webhook lag and lost webhooks.
+ * <p>
+ * Options (all {@code --name=value}): rate (payments/s), duration-seconds, drain-seconds,
+ * latency-ms, jitter-ms, error-rate, hang-rate, hang-ms, burst-429-every-ms, burst-429-ms.
+ * Any {@code --app.<property>=value} is passed to the application, e.g.
+ * {@code --app.webhook.timeout.read=2000}.
+ */
+public final class LoadTestHarness {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newFixedThreadPool(8))
+        .build();
+
+    // payment id -> wall-clock millis when its create request was sent
+    private final Map<Long, Long> paymentSentAt = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> createLatenciesMicros = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+
+    private LoadTestHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new LoadTestHarness(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        WebhookReceiver.Behavior behavior = new WebhookReceiver.Behavior(
+            longOption("latency-ms", 20), longOption("jitter-ms", 30),
+            doubleOption("error-rate", 0.0), doubleOption("hang-rate", 0.0), longOption("hang-ms", 15_000),
+            longOption("burst-429-every-ms", 0), longOption("burst-429-ms", 0));
+
+        try (WebhookReceiver receiver = new WebhookReceiver(behavior);
+             ConfigurableApplicationContext context = startApplication()) {
+            String baseUrl = "http://127.0.0.1:"
+                + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api";
+            post(baseUrl + "/webhooks", "{\"url\":\"" + receiver.getUrl() + "\",\"description\":\"load test\"}");
+
+            long rate = Math.max(1, longOption("rate", 50));
+            long durationSeconds = longOption("duration-seconds", 30);
+            System.out.printf("Driving %d payments/s for %ds against %s%n", rate, durationSeconds, baseUrl);
+            drive(baseUrl + "/payments", rate, durationSeconds);
+
+            long drainSeconds = longOption("drain-seconds", 30);
+            System.out.printf("Waiting up to %ds for webhook deliveries%n", drainSeconds);
+            long drainUntil = System.currentTimeMillis() + drainSeconds * 1000;
+            while (System.currentTimeMillis() < drainUntil
+                    && !receiver.getFirstDeliveries().keySet().containsAll(paymentSentAt.keySet())) {
+                Thread.sleep(200);
+            }
+
+            report(receiver);
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication() {
+        List<String> args = new ArrayList<>(Arrays.asList(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--logging.level.root=WARN",
+            "--logging.level.com.payment.api=WARN",
+            "--logging.level.org.hibernate.SQL=WARN"));
+        options.forEach((name, value) -> {
+            if (name.startsWith("app.")) {
+                args.add("--" + name.substring(4) + "=" + value);
+            }
+        });
+        // Command-line arguments so they take precedence over application.properties
+        return new SpringApplicationBuilder(PaymentWebhookApiApplication.class).run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Open-loop: requests are issued on schedule whether or not earlier ones have completed,
+     * so a slow server shows up as latency instead of silently lowering the offered rate
+     */
+    private void drive(String paymentsUrl, long rate, long durationSeconds) throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(() -> createPayment(paymentsUrl), 0, 1_000_000_000L / rate,
+            TimeUnit.NANOSECONDS);
+        Thread.sleep(durationSeconds * 1000);
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Let in-flight creates finish before counting
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (createLatenciesMicros.size() + failures.get() < sent.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private void createPayment(String paymentsUrl) {
+        String body = "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"zipCode\":\"12345\",\"cardNumber\":\""
+            + randomCardNumber() + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(paymentsUrl))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+
+        long sentAtMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        sent.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+            if (ex != null) {
+                failures.incrementAndGet();
+                return;
+            }
+            createLatenciesMicros.add((System.nanoTime() - start) / 1000);
+            statusCounts.computeIfAbsent(response.statusCode(), code -> new AtomicLong()).incrementAndGet();
+            if (response.statusCode() == 201) {
+                try {
+                    JsonNode id = objectMapper.readTree(response.body()).path("id");
+                    paymentSentAt.put(id.asLong(), sentAtMillis);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private void report(WebhookReceiver receiver) {
+        System.out.println();
+        System.out.printf("Payments: sent=%d statuses=%s transport-failures=%d%n", sent.get(), statusCounts,
+            failures.get());
+        printPercentiles("Create latency (ms)", createLatenciesMicros.stream().mapToLong(Long::longValue).toArray(),
+            1000.0);
+
+        Map<Long, Long> deliveries = receiver.getFirstDeliveries();
+        List<Long> lags = new ArrayList<>();
+        long lost = 0;
+        for (Map.Entry<Long, Long> payment : paymentSentAt.entrySet()) {
+            Long deliveredAt = deliveries.get(payment.getKey());
+            if (deliveredAt == null) {
+                lost++;
+            } else {
+                lags.add(deliveredAt - payment.getValue());
+            }
+        }
+        printPercentiles("Webhook lag (ms)", lags.stream().mapToLong(Long::longValue).toArray(), 1.0);
+        System.out.printf("Webhooks: created=%d delivered=%d lost=%d (%.2f%%)%n", paymentSentAt.size(), lags.size(),
+            lost, paymentSentAt.isEmpty() ? 0.0 : lost * 100.0 / paymentSentAt.size());
+        System.out.println("Receiver: " + receiver.summary());
+    }
+
+    private static void printPercentiles(String label, long[] values, double divisor) {
+        if (values.length == 0) {
+            System.out.println(label + ": no samples");
+            return;
+        }
+        Arrays.sort(values);
+        StringBuilder line = new StringBuilder(label).append(": n=").append(values.length);
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.min(values.length - 1, Math.ceil(percentile / 100.0 * values.length) - 1);
+            double value = values[Math.max(0, index)] / divisor;
+            line.append(String.format(" p%s=%.1f", formatPercentile(percentile), value));
+        }
+        line.append(String.format(" max=%.1f", values[values.length - 1] / divisor));
+        System.out.println(line);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Random 16-digit Visa-style number with a valid Luhn check digit
+     */
+    private static String randomCardNumber() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] digits = new int[16];
+        digits[0] = 4;
+        for (int i = 1; i < 15; i++) {
+            digits[i] = random.nextInt(10);
+        }
+        int sum = 0;
+        for (int i = 14; i >= 0; i--) {
+            int digit = digits[i];
+            // Doubled positions are every other digit counting left from the check digit
+            if ((14 - i) % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        digits[15] = (10 - sum % 10) % 10;
+
+        StringBuilder number = new StringBuilder(16);
+        for (int digit : digits) {
+            number.append(digit);
+        }
+        return number.toString();
+    }
+
+    private void post(String url, String json) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + url + " returned " + response.statusCode() + ": "
+                + response.body());
+        }
+    }
+
+    private long longOption(String name, long defaultValue) {
+        return options.containsKey(name) ? Long.parseLong(options.get(name)) : defaultValue;
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        return options.containsKey(name) ? Double.parseDouble(options.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,151 @@
+package com.payment.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process webhook endpoint with programmable misbehaviour, for reproducing delivery
+ * pathologies without a network. Each request is answered according to {@link Behavior}:
+ * <ul>
+ *   <li>during a 429 burst window every request gets 429 Too Many Requests</li>
+ *   <li>with probability hangRate the response is held for hangMillis before a 200</li>
+ *   <li>with probability errorRate the response is a 500</li>
+ *   <li>otherwise a 200 after latencyMillis plus up to jitterMillis</li>
+ * </ul>
+ * A payment counts as delivered when the receiver answers 2xx for it; a hung request is
+ * counted even if the sender gave up waiting, because that is what the partner would see.
+ */
+public class WebhookReceiver implements AutoCloseable {
+
+    public record Behavior(long latencyMillis, long jitterMillis, double errorRate, double hangRate,
+                           long hangMillis, long burst429EveryMillis, long burst429Millis) {
+    }
+
+    private final Behavior behavior;
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long startedAt = System.currentTimeMillis();
+
+    // payment id -> wall-clock millis of the first acknowledged delivery
+    private final Map<Long, Long> firstDelivery = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong acknowledged = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong hangs = new AtomicLong();
+
+    public WebhookReceiver(Behavior behavior) throws IOException {
+        this.behavior = behavior;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/webhook", this::handle);
+        this.server.setExecutor(handlers);
+        this.server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/webhook";
+    }
+
+    public Map<Long, Long> getFirstDeliveries() {
+        return firstDelivery;
+    }
+
+    public String summary() {
+        return String.format("requests=%d acknowledged=%d duplicates=%d 500s=%d 429s=%d hangs=%d",
+            requests.get(), acknowledged.get(), duplicates.get(), errors.get(), throttled.get(), hangs.get());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long receivedAt = System.currentTimeMillis();
+        requests.incrementAndGet();
+        try (exchange) {
+            long paymentId = readPaymentId(exchange.getRequestBody());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            if (inBurst(receivedAt)) {
+                throttled.incrementAndGet();
+                respond(exchange, 429);
+                return;
+            }
+            if (random.nextDouble() < behavior.hangRate()) {
+                hangs.incrementAndGet();
+                sleep(behavior.hangMillis());
+            } else if (random.nextDouble() < behavior.errorRate()) {
+                errors.incrementAndGet();
+                respond(exchange, 500);
+                return;
+            } else {
+                long jitter = behavior.jitterMillis() > 0 ? random.nextLong(behavior.jitterMillis() + 1) : 0;
+                sleep(behavior.latencyMillis() + jitter);
+            }
+
+            acknowledged.incrementAndGet();
+            if (paymentId >= 0 && firstDelivery.putIfAbsent(paymentId, receivedAt) != null) {
+                duplicates.incrementAndGet();
+            }
+            respond(exchange, 200);
+        }
+    }
+
+    private boolean inBurst(long now) {
+        if (behavior.burst429EveryMillis() <= 0) {
+            return false;
+        }
+        return (now - startedAt) % behavior.burst429EveryMillis() < behavior.burst429Millis();
+    }
+
+    private long readPaymentId(InputStream body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).path("payment").path("id");
+            return id.isNumber() ? id.asLong() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status) {
+        try {
+            exchange.sendResponseHeaders(status, -1);
+        } catch (IOException e) {
+            // The sender already timed out and closed the connection; expected after a hang
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+        try {
+            handlers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
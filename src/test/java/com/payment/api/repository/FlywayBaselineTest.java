@@ -0,0 +1,58 @@
+package com.payment.api.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A database created by the default profile (ddl-auto=update) and then started with the prod
+ * profile is baselined at version 1 and runs the later migrations over a schema that update mode
+ * built from the current entities
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=update"
+})
+// Flyway migrates on its own connections, so nothing may be held in a test transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlywayBaselineTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate_UpdateCreatedSchemaBaselinedAtVersionOne_AppliesLaterMigrations() {
+        // Arrange
+        Flyway flyway = Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration/h2")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .load();
+
+        // Act
+        MigrateResult result = flyway.migrate();
+
+        // Assert
+        assertTrue(result.success);
+        assertEquals("3", result.targetSchemaVersion);
+        List<String> indexes = jdbcTemplate.queryForList(
+            "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE LOWER(INDEX_NAME) IN ('idx_events_created_at', 'idx_deliveries_delivered_at')",
+            String.class);
+        assertEquals(2, indexes.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.payment.api.repository;
+
+import com.payment.api.entity.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+// ANALYZE commits, so the fixture cannot live in a rolled-back test transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.parse("2026-02-01T00:00:00");
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Enough unrelated rows that a scan of the tenant's rows would cost more than the index
+        for (long id = 1; id <= 200; id++) {
+            insert(id, "merchant-a", "name" + id, "9" + (id % 10) + "001", BASE.plusMinutes(id));
+        }
+        insert(201, "merchant-a", "doe", "12345", BASE.plusHours(1));
+        insert(202, "merchant-a", "doe", "12399", BASE.plusHours(2));
+        insert(203, "merchant-a", "doe", "94501", BASE.plusHours(3));
+        insert(204, "merchant-a", "doe", "12301", BASE.plusHours(4));
+        insert(205, "merchant-b", "doe", "12345", BASE.plusHours(5));
+        // Same timestamp as 204, so the ID breaks the tie
+        insert(206, "merchant-a", "doe", "12388", BASE.plusHours(4));
+        // H2 plans with default selectivities until the table has statistics
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM payments");
+    }
+
+    @Test
+    void searchSql_PlannedOnTenantSearchIndex() {
+        // Arrange
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("tenantId", "merchant-a")
+            .addValue("searchKey", "doe")
+            .addValue("zipPattern", "123%")
+            .addValue("fromTime", Timestamp.valueOf(BASE))
+            .addValue("beforeTime", Timestamp.valueOf(BASE.plusDays(1)))
+            .addValue("beforeId", 0L)
+            .addValue("limit", 21);
+
+        // Act
+        String plan = new NamedParameterJdbcTemplate(jdbcTemplate)
+            .queryForObject("EXPLAIN " + PaymentRepository.SEARCH_SQL, params, String.class);
+
+        // Assert
+        assertTrue(plan.toUpperCase().contains("IDX_TENANT_SEARCH_CREATED"), plan);
+    }
+
+    @Test
+    void search_PagesNewestFirstWithKeyset() {
+        // Act
+        List<Payment> firstPage = paymentRepository.search(
+            "merchant-a", "doe", "123%", BASE, BASE.plusDays(1), 0, 2);
+        Payment last = firstPage.get(firstPage.size() - 1);
+        List<Payment> secondPage = paymentRepository.search(
+            "merchant-a", "doe", "123%", BASE, last.getCreatedAt(), last.getId(), 2);
+
+        // Assert
+        assertEquals(List.of(206L, 204L), ids(firstPage));
+        assertEquals(List.of(202L, 201L), ids(secondPage));
+    }
+
+    private void insert(long id, String tenantId, String searchKey, String zipCode, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO payments (id, tenant_id, first_name, last_name, zip_code, search_key, " +
+                "card_number_encrypted, card_number_masked, status, created_at) " +
+                "VALUES (?, ?, 'John', ?, ?, ?, 'enc', '****0366', 'CREATED', ?)",
+            id, tenantId, searchKey, zipCode, searchKey, Timestamp.valueOf(createdAt));
+    }
+
+    private static List<Long> ids(List<Payment> payments) {
+        return payments.stream().map(Payment::getId).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.JobStatusDTO;
+import com.payment.api.util.EncryptionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardFingerprintBackfillServiceTest {
+
+    private static final String CARD_NUMBER = "4532015112830366";
+
+    private JdbcTemplate jdbcTemplate;
+    private EncryptionUtil encryptionUtil;
+    private CardFingerprintBackfillService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:fingerprint;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE payments (" +
+            "id BIGINT PRIMARY KEY, card_number_encrypted VARCHAR(500), card_fingerprint VARCHAR(64))");
+
+        encryptionUtil = new EncryptionUtil();
+        ReflectionTestUtils.setField(encryptionUtil, "secretKey", "TestSecretKey12345TestSecretKey12");
+        service = new CardFingerprintBackfillService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            encryptionUtil, Runnable::run, 4, 3, 1_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE payments");
+    }
+
+    @Test
+    void start_FillsMissingFingerprints() {
+        // Arrange
+        for (long id = 1; id <= 20; id++) {
+            jdbcTemplate.update("INSERT INTO payments VALUES (?, ?, NULL)", id, encryptionUtil.encrypt(CARD_NUMBER));
+        }
+
+        // Act
+        assertTrue(service.start());
+
+        // Assert
+        JobStatusDTO status = service.getStatus();
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(20, status.getUpdated());
+        assertEquals(20, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM payments WHERE card_fingerprint = ?", Integer.class,
+            encryptionUtil.fingerprint(CARD_NUMBER)));
+    }
+
+    @Test
+    void start_SkipsRowsThatAlreadyHaveFingerprint() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO payments VALUES (1, ?, 'existing')", encryptionUtil.encrypt(CARD_NUMBER));
+        jdbcTemplate.update("INSERT INTO payments VALUES (2, ?, NULL)", encryptionUtil.encrypt(CARD_NUMBER));
+
+        // Act
+        service.start();
+
+        // Assert
+        assertEquals(1, service.getStatus().getScanned());
+        assertEquals("existing", jdbcTemplate.queryForObject(
+            "SELECT card_fingerprint FROM payments WHERE id = 1", String.class));
+    }
+}
@@ -0,0 +1,118 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.JobStatusDTO;
+import com.payment.api.util.EncryptionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardReEncryptionServiceTest {
+
+    private static final String CARD_NUMBER = "4532015112830366";
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:reencryption;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, card_number_encrypted VARCHAR(500))");
+        jdbcTemplate.execute(
+            "CREATE TABLE payments_archive (id BIGINT PRIMARY KEY, card_number_encrypted VARCHAR(500))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE payments");
+        jdbcTemplate.execute("DROP TABLE payments_archive");
+    }
+
+    @Test
+    void start_RewritesEveryRowToActiveKey() {
+        // Arrange
+        EncryptionUtil oldKey = encryptionUtil("1");
+        for (long id = 1; id <= 25; id++) {
+            jdbcTemplate.update("INSERT INTO payments VALUES (?, ?)", id, oldKey.encrypt(CARD_NUMBER));
+        }
+        EncryptionUtil newKey = encryptionUtil("2");
+        CardReEncryptionService service = new CardReEncryptionService(
+            jdbcTemplate, transactionManager, newKey, Runnable::run, 4, 3, 1_000_000);
+
+        // Act
+        assertTrue(service.start());
+
+        // Assert
+        JobStatusDTO status = service.getStatus();
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(25, status.getScanned());
+        assertEquals(25, status.getUpdated());
+
+        List<String> values = jdbcTemplate.queryForList("SELECT card_number_encrypted FROM payments", String.class);
+        for (String value : values) {
+            assertTrue(value.startsWith("v2:"));
+            assertEquals(CARD_NUMBER, newKey.decrypt(value));
+        }
+    }
+
+    @Test
+    void start_SkipsRowsAlreadyOnActiveKey() {
+        // Arrange
+        EncryptionUtil activeKey = encryptionUtil("2");
+        jdbcTemplate.update("INSERT INTO payments VALUES (1, ?)", activeKey.encrypt(CARD_NUMBER));
+        CardReEncryptionService service = new CardReEncryptionService(
+            jdbcTemplate, transactionManager, activeKey, Runnable::run, 10, 2, 1_000_000);
+
+        // Act
+        service.start();
+
+        // Assert
+        assertEquals(0, service.getStatus().getScanned());
+        assertEquals("COMPLETED", service.getStatus().getState());
+    }
+
+    @Test
+    void start_AlsoRewritesArchivedRows() {
+        // Arrange
+        EncryptionUtil oldKey = encryptionUtil("1");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO payments_archive VALUES (?, ?)", id, oldKey.encrypt(CARD_NUMBER));
+        }
+        jdbcTemplate.update("INSERT INTO payments VALUES (6, ?)", oldKey.encrypt(CARD_NUMBER));
+        EncryptionUtil newKey = encryptionUtil("2");
+        CardReEncryptionService service = new CardReEncryptionService(
+            jdbcTemplate, transactionManager, newKey, Runnable::run, 2, 2, 1_000_000);
+
+        // Act
+        assertTrue(service.start());
+
+        // Assert
+        JobStatusDTO status = service.getStatus();
+        assertEquals("COMPLETED", status.getState());
+        assertEquals(6, status.getUpdated());
+        List<String> archived = jdbcTemplate.queryForList(
+            "SELECT card_number_encrypted FROM payments_archive", String.class);
+        assertEquals(5, archived.size());
+        for (String value : archived) {
+            assertTrue(value.startsWith("v2:"));
+            assertEquals(CARD_NUMBER, newKey.decrypt(value));
+        }
+    }
+
+    private EncryptionUtil encryptionUtil(String activeKeyId) {
+        EncryptionUtil encryptionUtil = new EncryptionUtil();
+        ReflectionTestUtils.setField(encryptionUtil, "secretKey", "TestSecretKey12345TestSecretKey12");
+        ReflectionTestUtils.setField(encryptionUtil, "keys", "1:firstSecret,2:secondSecret");
+        ReflectionTestUtils.setField(encryptionUtil, "activeKeyId", activeKeyId);
+        return encryptionUtil;
+    }
+}
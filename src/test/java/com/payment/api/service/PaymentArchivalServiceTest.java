@@ -0,0 +1,145 @@
+package com.payment.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentArchivalServiceTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PaymentArchivalService archivalService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:archival;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE payments (" +
+            "id BIGINT PRIMARY KEY, tenant_id VARCHAR(64) DEFAULT 'default', first_name VARCHAR(100), last_name VARCHAR(100), zip_code VARCHAR(20), " +
+            "card_number_encrypted VARCHAR(500), card_number_masked VARCHAR(20), card_fingerprint VARCHAR(64), " +
+            "status VARCHAR(20) DEFAULT 'CREATED', created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE payments_archive (" +
+            "id BIGINT PRIMARY KEY, tenant_id VARCHAR(64), first_name VARCHAR(100), last_name VARCHAR(100), zip_code VARCHAR(20), " +
+            "card_number_encrypted VARCHAR(500), card_number_masked VARCHAR(20), card_fingerprint VARCHAR(64), " +
+            "status VARCHAR(20), created_at TIMESTAMP, archived_at TIMESTAMP)");
+
+        archivalService = service(Runnable::run, 1.0, 30_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE payments");
+        jdbcTemplate.execute("DROP TABLE payments_archive");
+    }
+
+    @Test
+    void archiveBefore_MovesOnlyExpiredRowsAcrossBatches() throws Exception {
+        // Arrange
+        LocalDateTime cutoff = LocalDateTime.parse("2026-01-01T00:00:00");
+        for (long id = 1; id <= 5; id++) {
+            insert(id, cutoff.minusDays(id));
+        }
+        insert(6, cutoff);
+        insert(7, cutoff.plusDays(1));
+
+        // Act
+        long archived = archivalService.archiveBefore(cutoff);
+
+        // Assert
+        assertEquals(5, archived);
+        assertEquals(2, count("payments"));
+        assertEquals(5, count("payments_archive"));
+        assertEquals("Doe", jdbcTemplate.queryForObject(
+            "SELECT last_name FROM payments_archive WHERE id = 3", String.class));
+    }
+
+    @Test
+    void archiveBefore_StopsAtMaxBatchesPerRun() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(archivalService, "maxBatchesPerRun", 1);
+        LocalDateTime cutoff = LocalDateTime.parse("2026-01-01T00:00:00");
+        for (long id = 1; id <= 5; id++) {
+            insert(id, cutoff.minusDays(id));
+        }
+
+        // Act
+        long archived = archivalService.archiveBefore(cutoff);
+
+        // Assert
+        assertEquals(2, archived);
+        assertEquals(3, count("payments"));
+    }
+
+    @Test
+    void archiveBefore_PersistenceQueueNeverDrains_ArchivesAfterMaxBusyWait() throws Exception {
+        // Arrange
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> { });
+        archivalService = service(executor, 1.0, 50);
+        LocalDateTime cutoff = LocalDateTime.parse("2026-01-01T00:00:00");
+        insert(1, cutoff.minusDays(1));
+
+        try {
+            // Act
+            long archived = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> archivalService.archiveBefore(cutoff));
+
+            // Assert
+            assertEquals(1, archived);
+            assertEquals(0, count("payments"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void constructor_DutyCycleOutsideZeroToOne_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service(Runnable::run, 0, 30_000));
+        assertThrows(IllegalArgumentException.class, () -> service(Runnable::run, 1.5, 30_000));
+        assertThrows(IllegalArgumentException.class, () -> service(Runnable::run, Double.NaN, 30_000));
+    }
+
+    private PaymentArchivalService service(Executor persistenceExecutor, double dutyCycle, long maxBusyWaitMs) {
+        PaymentArchivalService service = new PaymentArchivalService(new NamedParameterJdbcTemplate(dataSource),
+            new DataSourceTransactionManager(dataSource), persistenceExecutor, dutyCycle, maxBusyWaitMs);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "maxBatchesPerRun", 10);
+        return service;
+    }
+
+    private void insert(long id, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO payments (id, first_name, last_name, zip_code, card_number_encrypted, " +
+                "card_number_masked, card_fingerprint, created_at) VALUES (?, 'John', 'Doe', '12345', 'enc', '****0366', 'fp', ?)",
+            id, Timestamp.valueOf(createdAt));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
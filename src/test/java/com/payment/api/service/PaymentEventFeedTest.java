@@ -0,0 +1,164 @@
+package com.payment.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.dto.EventFeedDTO;
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.entity.PaymentEvent;
+import com.payment.api.entity.PaymentStatus;
+import com.payment.api.repository.PaymentEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventFeedTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private PaymentEventRepository paymentEventRepository;
+
+    private PaymentEventFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new PaymentEventFeed(paymentEventRepository, objectMapper, 2, 100, 60_000, 30, 2);
+        when(paymentEventRepository.findMaxId()).thenReturn(10L);
+        feed.tail();
+    }
+
+    @Test
+    void poll_ParkedUntilTailerPublishesTenantsEvent() throws Exception {
+        // Arrange
+        DeferredResult<EventFeedDTO> result = feed.poll("merchant-a", null, 100, 30_000);
+        assertFalse(result.hasResult());
+        when(paymentEventRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+            .thenReturn(List.of(event(11, "merchant-b"), event(12, "merchant-a")));
+
+        // Act
+        feed.tail();
+
+        // Assert
+        EventFeedDTO batch = (EventFeedDTO) result.getResult();
+        assertEquals(1, batch.getEvents().size());
+        assertEquals(12L, batch.getEvents().get(0).getId());
+        assertEquals("PAYMENT_CAPTURED", batch.getEvents().get(0).getEventType());
+        assertEquals(PaymentStatus.CAPTURED, batch.getEvents().get(0).getPayment().getStatus());
+        assertEquals(12L, batch.getNextCursor());
+        assertEquals(0, feed.getWaitingPolls());
+    }
+
+    @Test
+    void tail_HoldsEventsBehindUncommittedId() throws Exception {
+        // Arrange
+        when(paymentEventRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+            .thenReturn(List.of(event(11, "merchant-a"), event(13, "merchant-a")));
+        when(paymentEventRepository.findByIdGreaterThanOrderByIdAsc(eq(11L), any(Pageable.class)))
+            .thenReturn(List.of(event(12, "merchant-a"), event(13, "merchant-a")));
+
+        // Act
+        feed.tail();
+        EventFeedDTO beforeCommit = feed.read("merchant-a", 10, 100);
+        feed.tail();
+        EventFeedDTO afterCommit = feed.read("merchant-a", 11, 100);
+
+        // Assert
+        assertEquals(List.of(11L), ids(beforeCommit));
+        assertEquals(List.of(12L, 13L), ids(afterCommit));
+        verify(paymentEventRepository, never())
+            .findByTenantIdAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(any(), any(), any(), any());
+    }
+
+    @Test
+    void read_CursorOlderThanRingFallsBackToTable() throws Exception {
+        // Arrange
+        when(paymentEventRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+            .thenReturn(List.of(event(11, "merchant-a"), event(12, "merchant-a"), event(13, "merchant-a")));
+        when(paymentEventRepository.findByTenantIdAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                eq("merchant-a"), eq(5L), eq(11L), any(Pageable.class)))
+            .thenReturn(List.of(event(7, "merchant-a"), event(11, "merchant-a")));
+        feed.tail();
+
+        // Act
+        EventFeedDTO batch = feed.read("merchant-a", 5, 100);
+
+        // Assert
+        assertEquals(List.of(7L, 11L, 12L, 13L), ids(batch));
+        assertEquals(13L, batch.getNextCursor());
+    }
+
+    @Test
+    void read_EventsEvictedDuringReadComeFromTable() throws Exception {
+        // Arrange
+        when(paymentEventRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+            .thenReturn(List.of(event(11, "merchant-a"), event(12, "merchant-a"), event(13, "merchant-a")));
+        when(paymentEventRepository.findByIdGreaterThanOrderByIdAsc(eq(13L), any(Pageable.class)))
+            .thenReturn(List.of(event(14, "merchant-a")));
+        feed.tail();
+        // The tailer evicts event 12 while the table is being read
+        when(paymentEventRepository.findByTenantIdAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                eq("merchant-a"), eq(10L), eq(11L), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                feed.tail();
+                return List.of(event(11, "merchant-a"));
+            });
+        when(paymentEventRepository.findByTenantIdAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                eq("merchant-a"), eq(11L), eq(12L), any(Pageable.class)))
+            .thenReturn(List.of(event(12, "merchant-a")));
+
+        // Act
+        EventFeedDTO batch = feed.read("merchant-a", 10, 100);
+
+        // Assert
+        assertEquals(List.of(11L, 12L, 13L, 14L), ids(batch));
+    }
+
+    @Test
+    void pruneExpiredEvents_DeletesInBatchesUntilShortBatch() {
+        // Arrange
+        when(paymentEventRepository.findIdsCreatedBefore(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(paymentEventRepository.deleteByIdIn(any())).thenReturn(2, 1);
+
+        // Act
+        feed.pruneExpiredEvents();
+
+        // Assert
+        verify(paymentEventRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(paymentEventRepository).deleteByIdIn(List.of(3L));
+    }
+
+    @Test
+    void poll_TimeoutZeroReturnsEmptyBatchWithCursor() {
+        // Act
+        DeferredResult<EventFeedDTO> result = feed.poll("merchant-a", null, 100, 0);
+
+        // Assert
+        EventFeedDTO batch = (EventFeedDTO) result.getResult();
+        assertTrue(batch.getEvents().isEmpty());
+        assertEquals(10L, batch.getNextCursor());
+    }
+
+    private PaymentEvent event(long id, String tenantId) throws Exception {
+        PaymentDTO.Response payment = new PaymentDTO.Response(
+            id, "John", "Doe", "12345", "****0366", PaymentStatus.CAPTURED, LocalDateTime.parse("2026-02-02T10:30:00"));
+        return new PaymentEvent(id, tenantId, id, "PAYMENT_CAPTURED", objectMapper.writeValueAsString(payment),
+            LocalDateTime.parse("2026-02-02T10:30:01"));
+    }
+
+    private static List<Long> ids(EventFeedDTO batch) {
+        return batch.getEvents().stream().map(EventFeedDTO.Event::getId).toList();
+    }
+}
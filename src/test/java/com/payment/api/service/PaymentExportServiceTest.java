@@ -0,0 +1,113 @@
+package com.payment.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentExportServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PaymentExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE payments (" +
+            "id BIGINT PRIMARY KEY, first_name VARCHAR(100), last_name VARCHAR(100), zip_code VARCHAR(20), " +
+            "card_number_encrypted VARCHAR(500), card_number_masked VARCHAR(20), created_at TIMESTAMP, " +
+            "tenant_id VARCHAR(64) DEFAULT 'default')");
+        insert(1, "John", "Doe", "2026-01-15T10:00:00");
+        insert(2, "Mary-Jane", "O'Brien, Jr", "2026-02-01T09:30:00");
+        insert(3, "Alice", "Smith", "2026-03-01T00:00:00");
+
+        exportService = new PaymentExportService(jdbcTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "fetchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE payments");
+    }
+
+    @Test
+    void export_Csv_WritesHeaderAndEscapedRows() throws Exception {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.export("default", PaymentExportService.Format.CSV, null, null, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, count);
+        assertEquals(4, lines.length);
+        assertEquals("id,firstName,lastName,zipCode,cardNumberMasked,createdAt", lines[0]);
+        assertEquals("1,John,Doe,12345,****0366,2026-01-15T10:00:00", lines[1]);
+        assertEquals("2,Mary-Jane,\"O'Brien, Jr\",12345,****0366,2026-02-01T09:30:00", lines[2]);
+    }
+
+    @Test
+    void export_Ndjson_WritesOneObjectPerLine() throws Exception {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export("default", PaymentExportService.Format.NDJSON, null, null, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("Doe", first.get("lastName").asText());
+        assertEquals("****0366", first.get("cardNumberMasked").asText());
+        assertFalse(first.has("cardNumberEncrypted"));
+    }
+
+    @Test
+    void export_DateRange_IncludesFromAndExcludesTo() throws Exception {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.export("default", PaymentExportService.Format.CSV,
+            LocalDateTime.parse("2026-02-01T09:30:00"), LocalDateTime.parse("2026-03-01T00:00:00"), out);
+
+        // Assert
+        assertEquals(1, count);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\n2,Mary-Jane,"));
+    }
+
+    @Test
+    void export_ExcludesOtherTenantsPayments() throws Exception {
+        // Arrange
+        insert(4, "Bob", "Jones", "2026-01-20T12:00:00", "merchant-b");
+
+        // Act
+        ByteArrayOutputStream defaultOut = new ByteArrayOutputStream();
+        long defaultCount = exportService.export("default", PaymentExportService.Format.CSV, null, null, defaultOut);
+        ByteArrayOutputStream otherOut = new ByteArrayOutputStream();
+        long otherCount = exportService.export("merchant-b", PaymentExportService.Format.CSV, null, null, otherOut);
+
+        // Assert
+        assertEquals(3, defaultCount);
+        assertFalse(defaultOut.toString(StandardCharsets.UTF_8).contains("Bob"));
+        assertEquals(1, otherCount);
+        assertTrue(otherOut.toString(StandardCharsets.UTF_8).contains("\n4,Bob,Jones,"));
+    }
+
+    private void insert(long id, String firstName, String lastName, String createdAt) {
+        insert(id, firstName, lastName, createdAt, "default");
+    }
+
+    private void insert(long id, String firstName, String lastName, String createdAt, String tenantId) {
+        jdbcTemplate.update("INSERT INTO payments VALUES (?, ?, ?, '12345', 'enc', '****0366', ?, ?)",
+            id, firstName, lastName, Timestamp.valueOf(LocalDateTime.parse(createdAt)), tenantId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PaymentMetrics paymentMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        paymentMetrics = new PaymentMetrics(registry);
+    }
+
+    @Test
+    void recordStage_TimerPerStage() {
+        // Act
+        paymentMetrics.recordStage(PaymentMetrics.STAGE_ENCRYPTION, 2_000_000);
+        paymentMetrics.recordStage(PaymentMetrics.STAGE_ENCRYPTION, 4_000_000);
+        paymentMetrics.recordStage(PaymentMetrics.STAGE_INSERT, 1_000_000);
+
+        // Assert
+        assertEquals(2, registry.get("payment.create.stage").tag("stage", "encryption").timer().count());
+        assertEquals(6.0, registry.get("payment.create.stage").tag("stage", "encryption").timer()
+            .totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get("payment.create.stage").tag("stage", "insert").timer().count());
+    }
+
+    @Test
+    void recordDeliveryAttempt_TaggedByWebhookOutcomeAndStatus() {
+        // Act
+        paymentMetrics.recordDeliveryAttempt(7L, PaymentMetrics.OUTCOME_HTTP_ERROR, 503, 1_000);
+        paymentMetrics.recordDeliveryAttempt(7L, PaymentMetrics.OUTCOME_TIMEOUT, 0, 1_000);
+        paymentMetrics.recordDeliveryAttempt(7L, PaymentMetrics.OUTCOME_SUCCESS, 200, 1_000);
+        paymentMetrics.recordDelivery(7L, true, 3, 5_000);
+
+        // Assert
+        assertEquals(1, registry.get("webhook.delivery.attempt")
+            .tags("webhook", "7", "outcome", "http_error", "status", "503").timer().count());
+        assertEquals(1, registry.get("webhook.delivery.attempt")
+            .tags("outcome", "timeout", "status", "none").timer().count());
+        assertEquals(1, registry.get("webhook.delivery").tags("webhook", "7", "outcome", "delivered").timer().count());
+        assertEquals(3.0, registry.get("webhook.delivery.attempts").tag("webhook", "7").summary().totalAmount());
+    }
+
+    @Test
+    void recordRejection_CountsPerExecutor() {
+        // Act
+        paymentMetrics.recordRejection("webhookExecutor");
+        paymentMetrics.recordRejection("webhookExecutor");
+
+        // Assert
+        assertEquals(2.0, registry.get("executor.rejected").tag("name", "webhookExecutor").counter().count());
+    }
+}
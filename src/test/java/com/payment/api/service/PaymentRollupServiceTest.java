@@ -0,0 +1,100 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.PaymentStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentRollupServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.parse("2026-02-01T00:00:00");
+    private static final LocalDateTime TO = LocalDateTime.parse("2026-02-02T00:00:00");
+
+    private JdbcTemplate jdbcTemplate;
+    private PaymentRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:rollups;DB_CLOSE_DELAY=-1"));
+        createTable();
+        rollupService = new PaymentRollupService(jdbcTemplate, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS payment_rollups");
+    }
+
+    @Test
+    void getStats_ByHour_CombinesFlushedAndPendingCounts() {
+        // Arrange
+        rollupService.record("merchant-a", "12345", LocalDateTime.parse("2026-02-01T10:05:00"));
+        rollupService.record("merchant-a", "94501", LocalDateTime.parse("2026-02-01T10:55:00"));
+        rollupService.flush();
+        rollupService.record("merchant-a", "12399-1234", LocalDateTime.parse("2026-02-01T11:00:00"));
+        rollupService.record("merchant-b", "12345", LocalDateTime.parse("2026-02-01T11:00:00"));
+
+        // Act
+        PaymentStatsDTO stats = rollupService.getStats("merchant-a", PaymentRollupService.GroupBy.HOUR, FROM, TO);
+
+        // Assert
+        assertEquals(3, stats.getTotal());
+        assertEquals(List.of(
+            new PaymentStatsDTO.Bucket("2026-02-01T10:00:00", 2),
+            new PaymentStatsDTO.Bucket("2026-02-01T11:00:00", 1)), stats.getBuckets());
+    }
+
+    @Test
+    void flush_AddsToExistingRows() {
+        // Arrange
+        rollupService.record("merchant-a", "12345", LocalDateTime.parse("2026-02-01T10:05:00"));
+        rollupService.record("merchant-a", "12399", LocalDateTime.parse("2026-02-01T10:10:00"));
+        rollupService.flush();
+        rollupService.record("merchant-a", "12301", LocalDateTime.parse("2026-02-01T10:15:00"));
+
+        // Act
+        rollupService.flush();
+
+        // Assert
+        assertEquals(3L, jdbcTemplate.queryForObject(
+            "SELECT payment_count FROM payment_rollups WHERE zip_prefix = '123'", Long.class));
+        PaymentStatsDTO stats = rollupService.getStats("merchant-a", PaymentRollupService.GroupBy.ZIP_PREFIX, FROM, TO);
+        assertEquals(List.of(new PaymentStatsDTO.Bucket("123", 3)), stats.getBuckets());
+    }
+
+    @Test
+    void flush_DatabaseError_KeepsCountsForNextRun() {
+        // Arrange
+        rollupService.record("merchant-a", "12345", LocalDateTime.parse("2026-02-01T10:05:00"));
+        jdbcTemplate.execute("DROP TABLE payment_rollups");
+        rollupService.flush();
+        createTable();
+
+        // Act
+        rollupService.flush();
+
+        // Assert
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT SUM(payment_count) FROM payment_rollups", Long.class));
+    }
+
+    @Test
+    void constructor_ZipPrefixWiderThanColumn_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new PaymentRollupService(jdbcTemplate, 6));
+        assertThrows(IllegalArgumentException.class, () -> new PaymentRollupService(jdbcTemplate, 0));
+        assertDoesNotThrow(() -> new PaymentRollupService(jdbcTemplate, PaymentRollupService.MAX_ZIP_PREFIX_LENGTH));
+    }
+
+    private void createTable() {
+        jdbcTemplate.execute("CREATE TABLE payment_rollups (" +
+            "tenant_id VARCHAR(64), bucket_hour TIMESTAMP, zip_prefix VARCHAR(5), payment_count BIGINT, " +
+            "PRIMARY KEY (tenant_id, bucket_hour, zip_prefix))");
+    }
+}
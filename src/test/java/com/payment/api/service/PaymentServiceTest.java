@@ -1,17 +1,26 @@
 package com.payment.api.service;
 
 import com.payment.api.dto.PaymentDTO;
+import com.payment.api.dto.PaymentSearchDTO;
 import com.payment.api.entity.Payment;
+import com.payment.api.entity.PaymentStatus;
 import com.payment.api.repository.PaymentRepository;
 import com.payment.api.util.EncryptionUtil;
+import com.payment.api.util.LogSampler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -20,6 +29,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class PaymentServiceTest {
 
+    private static final String TENANT = "merchant-a";
+
     @Mock
     private PaymentRepository paymentRepository;
 
@@ -29,6 +40,21 @@ class PaymentServiceTest {
     @Mock
     private WebhookNotificationService webhookNotificationService;
 
+    @Mock
+    private PaymentMetrics paymentMetrics;
+
+    @Mock
+    private PaymentTracer paymentTracer;
+
+    @Mock
+    private PaymentEventFeed paymentEventFeed;
+
+    @Mock
+    private PaymentRollupService paymentRollupService;
+
+    @Mock
+    private LogSampler logSampler;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -61,7 +87,7 @@ class PaymentServiceTest {
         when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
 
         // Act
-        PaymentDTO.Response response = paymentService.createPayment(createRequest);
+        PaymentDTO.Response response = paymentService.createPayment(TENANT, createRequest);
 
         // Assert
         assertNotNull(response);
@@ -70,12 +96,13 @@ class PaymentServiceTest {
         assertEquals("Doe", response.getLastName());
         assertEquals("12345", response.getZipCode());
         assertEquals("****0366", response.getCardNumberMasked());
+        assertEquals(PaymentStatus.CREATED, response.getStatus());
         assertNotNull(response.getCreatedAt());
 
         verify(encryptionUtil).encrypt("4532015112830366");
         verify(encryptionUtil).maskCardNumber("4532015112830366");
         verify(paymentRepository).save(any(Payment.class));
-        verify(webhookNotificationService).notifyWebhooks(any(PaymentDTO.Response.class));
+        verify(webhookNotificationService).notifyWebhooks(eq(TENANT), eq("PAYMENT_CREATED"), any(PaymentDTO.Response.class));
     }
 
     @Test
@@ -86,7 +113,7 @@ class PaymentServiceTest {
         when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
 
         // Act
-        paymentService.createPayment(createRequest);
+        paymentService.createPayment(TENANT, createRequest);
 
         // Assert
         verify(encryptionUtil, times(1)).encrypt("4532015112830366");
@@ -100,9 +127,158 @@ class PaymentServiceTest {
         when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
 
         // Act
-        paymentService.createPayment(createRequest);
+        paymentService.createPayment(TENANT, createRequest);
+
+        // Assert
+        verify(webhookNotificationService, times(1)).notifyWebhooks(eq(TENANT), eq("PAYMENT_CREATED"), any(PaymentDTO.Response.class));
+        verify(paymentEventFeed).record(eq(TENANT), eq("PAYMENT_CREATED"), any(PaymentDTO.Response.class));
+    }
+
+    @Test
+    void createPaymentAsync_CompletesWithCreatedPayment() throws Exception {
+        // Arrange
+        when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted123");
+        when(encryptionUtil.maskCardNumber(anyString())).thenReturn("****0366");
+        when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
+
+        // Act
+        PaymentDTO.Response response = paymentService.createPaymentAsync(TENANT, createRequest).get();
+
+        // Assert
+        assertEquals(1L, response.getId());
+        verify(paymentRepository).save(any(Payment.class));
+    }
+
+    @Test
+    void createPayment_StoresCardFingerprint() {
+        // Arrange
+        when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted123");
+        when(encryptionUtil.maskCardNumber(anyString())).thenReturn("****0366");
+        when(encryptionUtil.fingerprint("4532015112830366")).thenReturn("fp123");
+        when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
+
+        // Act
+        paymentService.createPayment(TENANT, createRequest);
+
+        // Assert
+        ArgumentCaptor<Payment> captor = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository).save(captor.capture());
+        assertEquals("fp123", captor.getValue().getCardFingerprint());
+        assertEquals(TENANT, captor.getValue().getTenantId());
+        assertEquals("doe", captor.getValue().getSearchKey());
+    }
+
+    @Test
+    void findPaymentsByCard_QueriesByFingerprint() {
+        // Arrange
+        when(encryptionUtil.fingerprint("4532015112830366")).thenReturn("fp123");
+        when(paymentRepository.findByTenantIdAndCardFingerprintOrderByIdDesc(
+                eq(TENANT), eq("fp123"), any(Pageable.class)))
+            .thenReturn(List.of(savedPayment));
+
+        // Act
+        List<PaymentDTO.Response> payments = paymentService.findPaymentsByCard(TENANT, "4532015112830366", 10);
+
+        // Assert
+        assertEquals(1, payments.size());
+        assertEquals(1L, payments.get(0).getId());
+        verify(encryptionUtil, never()).decrypt(anyString());
+    }
+
+    @Test
+    void createPayment_RecordsEncryptionAndInsertStages() {
+        // Arrange
+        when(encryptionUtil.encrypt(anyString())).thenReturn("encrypted123");
+        when(encryptionUtil.maskCardNumber(anyString())).thenReturn("****0366");
+        when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
+
+        // Act
+        paymentService.createPayment(TENANT, createRequest);
+
+        // Assert
+        verify(paymentMetrics).recordStage(eq(PaymentMetrics.STAGE_ENCRYPTION), anyLong());
+        verify(paymentMetrics).recordStage(eq(PaymentMetrics.STAGE_INSERT), anyLong());
+        verify(paymentTracer).attachPayment(TENANT, 1L);
+        verify(paymentRollupService).record(TENANT, "12345", savedPayment.getCreatedAt());
+    }
+
+    @Test
+    void capturePayment_AuthorizedPayment_UpdatesStatusAndNotifies() {
+        // Arrange
+        savedPayment.setStatus(PaymentStatus.AUTHORIZED);
+        when(paymentRepository.findForUpdateByIdAndTenantId(1L, TENANT)).thenReturn(Optional.of(savedPayment));
+
+        // Act
+        PaymentDTO.Response response = paymentService.capturePayment(TENANT, 1L);
+
+        // Assert
+        assertEquals(PaymentStatus.CAPTURED, savedPayment.getStatus());
+        assertEquals(PaymentStatus.CAPTURED, response.getStatus());
+        verify(webhookNotificationService).notifyWebhooks(TENANT, "PAYMENT_CAPTURED", response);
+        verify(paymentEventFeed).record(TENANT, "PAYMENT_CAPTURED", response);
+    }
+
+    @Test
+    void refundPayment_UncapturedPayment_ConflictWithoutNotifying() {
+        // Arrange
+        when(paymentRepository.findForUpdateByIdAndTenantId(1L, TENANT)).thenReturn(Optional.of(savedPayment));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> paymentService.refundPayment(TENANT, 1L));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals(PaymentStatus.CREATED, savedPayment.getStatus());
+        verifyNoInteractions(webhookNotificationService, paymentEventFeed);
+    }
+
+    @Test
+    void authorizePayment_OtherTenantsPayment_NotFound() {
+        // Arrange
+        when(paymentRepository.findForUpdateByIdAndTenantId(1L, "merchant-b")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> paymentService.authorizePayment("merchant-b", 1L));
+        verifyNoInteractions(webhookNotificationService);
+    }
+
+    @Test
+    void searchPayments_NormalizesNameAndContinuesFromCursor() {
+        // Arrange
+        LocalDateTime to = LocalDateTime.parse("2026-03-01T00:00:00");
+        Payment older = new Payment();
+        older.setId(2L);
+        older.setLastName("O'Brien");
+        older.setCreatedAt(LocalDateTime.parse("2026-02-01T09:00:00"));
+        savedPayment.setLastName("O'Brien");
+        savedPayment.setCreatedAt(LocalDateTime.parse("2026-02-01T10:00:00"));
+        when(paymentRepository.search(eq(TENANT), eq("obrien"), eq("123%"), any(), eq(to), eq(0L), eq(2)))
+            .thenReturn(List.of(savedPayment, older));
+        when(paymentRepository.search(TENANT, "obrien", "123%", LocalDateTime.of(1970, 1, 1, 0, 0),
+                savedPayment.getCreatedAt(), 1L, 2))
+            .thenReturn(List.of(older));
+
+        // Act
+        PaymentSearchDTO firstPage = paymentService.searchPayments(TENANT, "O'Brien", "123", null, to, null, 1);
+        PaymentSearchDTO secondPage = paymentService.searchPayments(
+            TENANT, "o brien", "123", null, to, firstPage.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(1L, firstPage.getPayments().get(0).getId());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(2L, secondPage.getPayments().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void searchPayments_MalformedCursor_BadRequest() {
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> paymentService.searchPayments(TENANT, "Doe", null, null, null, "not-a-cursor", 20));
 
         // Assert
-        verify(webhookNotificationService, times(1)).notifyWebhooks(any(PaymentDTO.Response.class));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(paymentRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.payment.api.service;
+
+import com.payment.api.config.RequestIdFilter;
+import com.payment.api.dto.PaymentTraceDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentTracerTest {
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void recordSpan_GroupedByRequestAndFoundByPayment() {
+        // Arrange
+        PaymentTracer tracer = new PaymentTracer(100);
+        startRequest("req-1");
+
+        // Act
+        tracer.recordSpan("validation", 5_000, null);
+        tracer.recordSpan("insert", 2_000_000, null);
+        tracer.attachPayment("merchant-a", 10L);
+        tracer.recordSpan("webhook.attempt", 30_000_000, "webhook=1 attempt=1 outcome=success status=200");
+
+        // Assert
+        PaymentTraceDTO trace = tracer.getTrace("merchant-a", 10L).orElseThrow();
+        assertEquals("req-1", trace.getRequestId());
+        assertEquals(3, trace.getSpans().size());
+        assertEquals("insert", trace.getSpans().get(1).getName());
+        assertEquals(2_000, trace.getSpans().get(1).getDurationMicros());
+    }
+
+    @Test
+    void recordSpan_WithoutRequestId_Ignored() {
+        // Arrange
+        PaymentTracer tracer = new PaymentTracer(100);
+
+        // Act
+        tracer.recordSpan("insert", 1_000, null);
+        tracer.attachPayment("merchant-a", 10L);
+
+        // Assert
+        assertTrue(tracer.getTrace("merchant-a", 10L).isEmpty());
+    }
+
+    @Test
+    void traces_OldestEvictedBeyondMaxEntries() {
+        // Arrange
+        PaymentTracer tracer = new PaymentTracer(2);
+
+        // Act
+        for (long paymentId = 1; paymentId <= 3; paymentId++) {
+            startRequest("req-" + paymentId);
+            tracer.recordSpan("insert", 1_000, null);
+            tracer.attachPayment("merchant-a", paymentId);
+        }
+
+        // Assert
+        assertTrue(tracer.getTrace("merchant-a", 1L).isEmpty());
+        assertTrue(tracer.getTrace("merchant-a", 2L).isPresent());
+        assertTrue(tracer.getTrace("merchant-a", 3L).isPresent());
+    }
+
+    @Test
+    void getTrace_OtherTenantsPayment_Empty() {
+        // Arrange
+        PaymentTracer tracer = new PaymentTracer(100);
+        startRequest("req-1");
+        tracer.recordSpan("insert", 1_000, null);
+        tracer.attachPayment("merchant-a", 10L);
+
+        // Act & Assert
+        assertTrue(tracer.getTrace("merchant-b", 10L).isEmpty());
+        assertTrue(tracer.getTrace("merchant-a", 10L).isPresent());
+    }
+
+    @Test
+    void attachPayment_ReusedRequestId_EachPaymentKeepsOwnTraceAndOldOnesAreEvicted() {
+        // Arrange
+        PaymentTracer tracer = new PaymentTracer(2);
+
+        // Act
+        for (long paymentId = 1; paymentId <= 3; paymentId++) {
+            startRequest("same-id");
+            tracer.recordSpan("insert", paymentId * 1_000, null);
+            tracer.attachPayment("merchant-a", paymentId);
+        }
+
+        // Assert
+        assertTrue(tracer.getTrace("merchant-a", 1L).isEmpty());
+        PaymentTraceDTO trace = tracer.getTrace("merchant-a", 3L).orElseThrow();
+        assertEquals("same-id", trace.getRequestId());
+        assertEquals(1, trace.getSpans().size());
+        assertEquals(3, trace.getSpans().get(0).getDurationMicros());
+    }
+
+    @Test
+    void getTrace_TwoTenantsSendSameRequestId_EachSeesOnlyOwnTrace() {
+        // Arrange
+        PaymentTracer tracer = new PaymentTracer(100);
+        startRequest("shared-id");
+        tracer.recordSpan("insert", 1_000, "tenant-a span");
+        tracer.attachPayment("merchant-a", 10L);
+        startRequest("shared-id");
+        tracer.recordSpan("insert", 2_000, "tenant-b span");
+        tracer.attachPayment("merchant-b", 20L);
+
+        // Act
+        PaymentTraceDTO traceA = tracer.getTrace("merchant-a", 10L).orElseThrow();
+        PaymentTraceDTO traceB = tracer.getTrace("merchant-b", 20L).orElseThrow();
+
+        // Assert
+        assertEquals(List.of("tenant-a span"), traceA.getSpans().stream().map(PaymentTraceDTO.Span::getDetail).toList());
+        assertEquals(List.of("tenant-b span"), traceB.getSpans().stream().map(PaymentTraceDTO.Span::getDetail).toList());
+        assertTrue(tracer.getTrace("merchant-b", 10L).isEmpty());
+        assertTrue(tracer.getTrace("merchant-a", 20L).isEmpty());
+    }
+
+    /**
+     * What RequestIdFilter puts in the MDC: the caller's request ID and a fresh trace ID
+     */
+    private static void startRequest(String requestId) {
+        MDC.put(RequestIdFilter.MDC_KEY, requestId);
+        MDC.put(RequestIdFilter.TRACE_MDC_KEY, UUID.randomUUID().toString());
+    }
+}
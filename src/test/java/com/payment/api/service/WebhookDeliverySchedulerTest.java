@@ -0,0 +1,194 @@
+package com.payment.api.service;
+
+import com.payment.api.config.AdaptiveThreadPoolTaskExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookDeliverySchedulerTest {
+
+    @Mock
+    private AdaptiveThreadPoolTaskExecutor webhookExecutor;
+
+    @Mock
+    private PaymentMetrics paymentMetrics;
+
+    @Test
+    void submit_RejectedTicketDrainedByNextWorker() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = scheduler(100);
+        List<String> delivered = new ArrayList<>();
+        ArgumentCaptor<Runnable> ticket = ArgumentCaptor.forClass(Runnable.class);
+        doThrow(new TaskRejectedException("saturated"))
+            .doNothing()
+            .when(webhookExecutor).execute(ticket.capture());
+
+        // Act
+        scheduler.submit("merchant-a", () -> delivered.add("first"));
+        scheduler.submit("merchant-b", () -> delivered.add("second"));
+        ticket.getAllValues().get(1).run();
+
+        // Assert
+        assertEquals(List.of("first", "second"), delivered);
+        assertEquals(0, scheduler.getQueuedDeliveries());
+    }
+
+    @Test
+    void submit_FullTenantQueueDropsDelivery() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = scheduler(1);
+
+        // Act
+        boolean first = scheduler.submit("merchant-a", () -> { });
+        boolean second = scheduler.submit("merchant-a", () -> { });
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        verify(paymentMetrics).recordDropped("merchant-a");
+        verify(webhookExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void submit_QueuedDeliveryWithSameKeyReplacedWithoutNewTicket() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = scheduler(100);
+        List<String> delivered = new ArrayList<>();
+        ArgumentCaptor<Runnable> ticket = ArgumentCaptor.forClass(Runnable.class);
+        doNothing().when(webhookExecutor).execute(ticket.capture());
+
+        // Act
+        scheduler.submit("merchant-a", "payment-1", 1, () -> delivered.add("authorized"));
+        scheduler.submit("merchant-a", "payment-1", 2, () -> delivered.add("captured"));
+        ticket.getValue().run();
+
+        // Assert
+        assertEquals(List.of("captured"), delivered);
+        verify(webhookExecutor, times(1)).execute(any(Runnable.class));
+        verify(paymentMetrics).recordCoalesced("merchant-a");
+    }
+
+    @Test
+    void submitRetry_NewerEventForKeyDropsPendingRetry() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = scheduler(100);
+        List<String> delivered = new ArrayList<>();
+        ArgumentCaptor<Runnable> ticket = ArgumentCaptor.forClass(Runnable.class);
+        doNothing().when(webhookExecutor).execute(ticket.capture());
+        scheduler.submitRetry("merchant-a", "payment-1", 1, () -> delivered.add("authorized-retry"), 50);
+
+        // Act
+        scheduler.submit("merchant-a", "payment-1", 2, () -> delivered.add("captured"));
+        ticket.getValue().run();
+        verify(paymentMetrics, timeout(2000)).recordCoalesced("merchant-a");
+        scheduler.shutdown();
+
+        // Assert
+        assertEquals(List.of("captured"), delivered);
+        assertEquals(0, scheduler.getQueuedDeliveries());
+        verify(webhookExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    void submit_OlderEventArrivingLateIsDropped() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = scheduler(100);
+        List<String> delivered = new ArrayList<>();
+        ArgumentCaptor<Runnable> ticket = ArgumentCaptor.forClass(Runnable.class);
+        doNothing().when(webhookExecutor).execute(ticket.capture());
+
+        // Act
+        scheduler.submit("merchant-a", "payment-1", 2, () -> delivered.add("captured"));
+        scheduler.submit("merchant-a", "payment-1", 1, () -> delivered.add("authorized"));
+        ticket.getValue().run();
+
+        // Assert
+        assertEquals(List.of("captured"), delivered);
+        verify(paymentMetrics).recordCoalesced("merchant-a");
+    }
+
+    @Test
+    void runNext_FirstAttemptsAheadOfRetriesWithoutStarvingThem() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = scheduler(100);
+        List<String> delivered = new ArrayList<>();
+        ArgumentCaptor<Runnable> ticket = ArgumentCaptor.forClass(Runnable.class);
+        doThrow(new TaskRejectedException("saturated")).when(webhookExecutor).execute(any(Runnable.class));
+        scheduler.enqueueRetry("merchant-a", null, 0, () -> delivered.add("retry-1"));
+        scheduler.enqueueRetry("merchant-a", null, 0, () -> delivered.add("retry-2"));
+        for (int i = 1; i <= 6; i++) {
+            String name = "fresh-" + i;
+            scheduler.submit("merchant-b", () -> delivered.add(name));
+        }
+        doNothing().when(webhookExecutor).execute(ticket.capture());
+        scheduler.submit("merchant-b", () -> delivered.add("fresh-7"));
+
+        // Act
+        ticket.getValue().run();
+
+        // Assert
+        assertEquals(List.of("fresh-1", "fresh-2", "fresh-3", "fresh-4", "retry-1",
+            "fresh-5", "fresh-6", "fresh-7", "retry-2"), delivered);
+    }
+
+    @Test
+    void submitRetry_BudgetExhausted_RetryDenied() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = new WebhookDeliveryScheduler(
+            webhookExecutor, paymentMetrics, "", 100, 4, 0.1, 0, 1);
+
+        // Act
+        boolean first = scheduler.submitRetry("merchant-a", null, 0, () -> { }, 60_000);
+        boolean second = scheduler.submitRetry("merchant-a", null, 0, () -> { }, 60_000);
+        scheduler.shutdown();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        verify(paymentMetrics).recordRetryDenied("merchant-a");
+    }
+
+    @Test
+    void requeueBusy_SpendsNoRetryBudget() {
+        // Arrange
+        WebhookDeliveryScheduler scheduler = new WebhookDeliveryScheduler(
+            webhookExecutor, paymentMetrics, "", 100, 4, 0.1, 0, 1);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            scheduler.requeueBusy("merchant-a", null, 0, () -> { });
+        }
+        boolean retry = scheduler.submitRetry("merchant-a", null, 0, () -> { }, 60_000);
+        scheduler.shutdown();
+
+        // Assert
+        assertTrue(retry);
+        verify(paymentMetrics, never()).recordRetryDenied(any());
+    }
+
+    @Test
+    void parseWeights_ParsesEntriesAndRejectsMalformed() {
+        // Act
+        Map<String, Integer> weights = WebhookDeliveryScheduler.parseWeights(" merchant-a=3, merchant-b = 2");
+
+        // Assert
+        assertEquals(Map.of("merchant-a", 3, "merchant-b", 2), weights);
+        assertTrue(WebhookDeliveryScheduler.parseWeights("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> WebhookDeliveryScheduler.parseWeights("merchant-a"));
+    }
+
+    private WebhookDeliveryScheduler scheduler(int queueCapacity) {
+        return new WebhookDeliveryScheduler(webhookExecutor, paymentMetrics, "", queueCapacity, 4, 0.2, 5, 100);
+    }
+}
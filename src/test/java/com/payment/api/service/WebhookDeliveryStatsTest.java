@@ -0,0 +1,120 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.WebhookStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookDeliveryStatsTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(START);
+    private final WebhookDeliveryStats stats = new WebhookDeliveryStats(now::get);
+
+    @Test
+    void getStats_ComputesRateThroughputAndPercentiles() {
+        // Arrange
+        for (int i = 0; i < 98; i++) {
+            stats.recordAttempt(1L, true, millis(40));
+        }
+        stats.recordAttempt(1L, false, millis(900));
+        stats.recordAttempt(1L, false, millis(4_000));
+
+        // Act
+        WebhookStatsDTO.Window oneMinute = stats.getStats(1L).getWindows().get(0);
+
+        // Assert
+        assertEquals("1m", oneMinute.getWindow());
+        assertEquals(100, oneMinute.getAttempts());
+        assertEquals(98, oneMinute.getSuccesses());
+        assertEquals(0.98, oneMinute.getSuccessRate().doubleValue(), 1e-9);
+        assertEquals(100 / 60.0, oneMinute.getAttemptsPerSecond(), 1e-9);
+        assertEquals(50L, oneMinute.getP50Millis());
+        assertEquals(1_000L, oneMinute.getP99Millis());
+    }
+
+    @Test
+    void getStats_OlderAttemptsLeaveShortWindowsFirst() {
+        // Arrange
+        stats.recordAttempt(1L, true, millis(10));
+        now.addAndGet(TimeUnit.MINUTES.toMillis(3));
+        stats.recordAttempt(1L, false, millis(10));
+        now.addAndGet(TimeUnit.MINUTES.toMillis(3));
+
+        // Act
+        List<WebhookStatsDTO.Window> windows = stats.getStats(1L).getWindows();
+
+        // Assert
+        assertEquals(0, windows.get(0).getAttempts());
+        assertNull(windows.get(0).getSuccessRate());
+        assertEquals(1, windows.get(1).getAttempts());
+        assertEquals(0.0, windows.get(1).getSuccessRate());
+        assertEquals(2, windows.get(2).getAttempts());
+    }
+
+    @Test
+    void recordAttempt_ReusedSlotIsClearedAfterAnHour() {
+        // Arrange
+        stats.recordAttempt(1L, true, millis(10));
+        now.addAndGet(TimeUnit.HOURS.toMillis(1));
+
+        // Act
+        stats.recordAttempt(1L, false, millis(10));
+
+        // Assert
+        WebhookStatsDTO.Window oneHour = stats.getStats(1L).getWindows().get(2);
+        assertEquals(1, oneHour.getAttempts());
+        assertEquals(0, oneHour.getSuccesses());
+    }
+
+    @Test
+    void recordAttempt_ConcurrentWritersAllCounted() throws Exception {
+        // Arrange
+        int threads = 8;
+        int perThread = 10_000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    stats.recordAttempt(1L, i % 2 == 0, millis(5));
+                }
+            }));
+        }
+
+        // Act
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Assert
+        WebhookStatsDTO.Window oneMinute = stats.getStats(1L).getWindows().get(0);
+        assertEquals((long) threads * perThread, oneMinute.getAttempts());
+        assertEquals((long) threads * perThread / 2, oneMinute.getSuccesses());
+    }
+
+    @Test
+    void getStats_UnknownOrRemovedWebhook_Empty() {
+        // Arrange
+        stats.recordAttempt(1L, true, millis(10));
+        stats.remove(1L);
+
+        // Act
+        WebhookStatsDTO result = stats.getStats(1L);
+
+        // Assert
+        assertEquals(3, result.getWindows().size());
+        assertTrue(result.getWindows().stream().allMatch(window -> window.getAttempts() == 0));
+        assertEquals(0, stats.getStats(2L).getWindows().get(2).getAttempts());
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,123 @@
+package com.payment.api.service;
+
+import com.payment.api.config.AdaptiveThreadPoolTaskExecutor;
+import com.payment.api.dto.ExecutorSizingDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookExecutorSizerTest {
+
+    private static final long FIVE_SECONDS = TimeUnit.SECONDS.toNanos(5);
+
+    private AdaptiveThreadPoolTaskExecutor executor;
+    private WebhookExecutorSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        executor = new AdaptiveThreadPoolTaskExecutor();
+        executor.setCorePoolSize(5);
+        executor.setMaxPoolSize(5);
+        executor.setQueueCapacity(100);
+        executor.initialize();
+
+        sizer = new WebhookExecutorSizer(executor);
+        ReflectionTestUtils.setField(sizer, "adaptive", true);
+        ReflectionTestUtils.setField(sizer, "minThreads", 2);
+        ReflectionTestUtils.setField(sizer, "maxThreads", 50);
+        ReflectionTestUtils.setField(sizer, "minQueueCapacity", 50);
+        ReflectionTestUtils.setField(sizer, "maxQueueCapacity", 5000);
+        ReflectionTestUtils.setField(sizer, "targetUtilization", 0.75);
+        ReflectionTestUtils.setField(sizer, "targetQueueWaitMillis", 1000L);
+        ReflectionTestUtils.setField(sizer, "maxQueueWaitMillis", 60000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void plan_SaturatedPool_GrowsByLittlesLaw() {
+        // Arrange: 5 threads busy the whole interval on 500ms tasks, tasks waiting 3s in the queue
+        AdaptiveThreadPoolTaskExecutor.Sample sample = sample(50, 0, 3000, 500);
+
+        // Act
+        WebhookExecutorSizer.Plan plan = sizer.plan(sample, FIVE_SECONDS, 5, 100, 5, 40);
+
+        // Assert: 10 tasks/s * 0.5s / 0.75 = 6.67 -> 7 threads; 7 threads drain 7 * 60 / 0.5 in a minute
+        assertEquals(7, plan.threads());
+        assertEquals(840, plan.queueCapacity());
+    }
+
+    @Test
+    void plan_LightLoad_ShrinksOneThreadPerInterval() {
+        // Arrange
+        AdaptiveThreadPoolTaskExecutor.Sample sample = sample(5, 0, 0, 100);
+
+        // Act
+        WebhookExecutorSizer.Plan plan = sizer.plan(sample, FIVE_SECONDS, 10, 100, 0, 0);
+
+        // Assert
+        assertEquals(9, plan.threads());
+    }
+
+    @Test
+    void plan_StuckPoolWithBacklog_GrowsWithinBounds() {
+        // Arrange: every thread held by a hanging endpoint, nothing completed
+        AdaptiveThreadPoolTaskExecutor.Sample sample = sample(0, 3, 0, 0);
+
+        // Act
+        WebhookExecutorSizer.Plan grown = sizer.plan(sample, FIVE_SECONDS, 20, 100, 20, 100);
+        WebhookExecutorSizer.Plan capped = sizer.plan(sample, FIVE_SECONDS, 48, 100, 48, 100);
+
+        // Assert
+        assertEquals(25, grown.threads());
+        assertEquals(100, grown.queueCapacity());
+        assertEquals(50, capped.threads());
+    }
+
+    @Test
+    void override_ResizesLiveExecutorAndSuspendsAdaptiveSizing() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        ExecutorSizingDTO sizing = sizer.override(1, 1);
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+
+        // Assert
+        assertEquals("override", sizing.getMode());
+        assertEquals(1, sizing.getThreads());
+        assertEquals(1, sizing.getQueueCapacity());
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+
+        sizer.adjust();
+        assertEquals(1, executor.getCorePoolSize());
+        assertEquals("adaptive", sizer.resumeAdaptive().getMode());
+        release.countDown();
+    }
+
+    private static AdaptiveThreadPoolTaskExecutor.Sample sample(long completed, long refused, long avgWaitMillis,
+                                                               long avgRunMillis) {
+        return new AdaptiveThreadPoolTaskExecutor.Sample(completed, refused,
+            completed * TimeUnit.MILLISECONDS.toNanos(avgWaitMillis),
+            completed * TimeUnit.MILLISECONDS.toNanos(avgRunMillis));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.entity.PaymentStatus;
+import com.payment.api.entity.Webhook;
+import com.payment.api.util.LogSampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookNotificationServiceTest {
+
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    private WebhookDeliveryScheduler webhookDeliveryScheduler;
+
+    @Mock
+    private PaymentMetrics paymentMetrics;
+
+    @Mock
+    private PaymentTracer paymentTracer;
+
+    @Mock
+    private WebhookDeliveryStats webhookDeliveryStats;
+
+    @Mock
+    private LogSampler logSampler;
+
+    @InjectMocks
+    private WebhookNotificationService webhookNotificationService;
+
+    private PaymentDTO.Response payment;
+    private Semaphore permits;
+
+    @BeforeEach
+    void setUp() {
+        Webhook webhook = new Webhook();
+        webhook.setId(7L);
+        webhook.setUrl("http://localhost:1/hook");
+        permits = new Semaphore(1);
+        WebhookEndpoint endpoint = new WebhookEndpoint(webhook, 1000, 1000, 3, 100, 1, permits);
+        lenient().when(webhookService.getActiveEndpoints("merchant-a")).thenReturn(List.of(endpoint));
+        payment = new PaymentDTO.Response(
+            1L, "John", "Doe", "12345", "****0366", PaymentStatus.CAPTURED, LocalDateTime.parse("2026-02-02T10:30:00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void notifyWebhooks_InTransaction_QueuesOnlyAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        webhookNotificationService.notifyWebhooks("merchant-a", "PAYMENT_CAPTURED", payment);
+
+        // Assert
+        verifyNoInteractions(webhookDeliveryScheduler);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(webhookDeliveryScheduler).submit(eq("merchant-a"), any(), eq(2L), any(Runnable.class));
+    }
+
+    @Test
+    void notifyWebhooks_RolledBack_QueuesNothing() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        webhookNotificationService.notifyWebhooks("merchant-a", "PAYMENT_CAPTURED", payment);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verifyNoInteractions(webhookService, webhookDeliveryScheduler);
+    }
+
+    @Test
+    void attemptDelivery_AllSlotsBusy_RequeuedWithoutSpendingAnAttempt() {
+        // Arrange
+        permits.acquireUninterruptibly();
+        ArgumentCaptor<Runnable> delivery = ArgumentCaptor.forClass(Runnable.class);
+        webhookNotificationService.notifyWebhooks("merchant-a", "PAYMENT_CAPTURED", payment);
+        verify(webhookDeliveryScheduler).submit(eq("merchant-a"), any(), eq(2L), delivery.capture());
+
+        // Act
+        long start = System.nanoTime();
+        delivery.getValue().run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis < 500, "waited " + elapsedMillis + " ms for a slot");
+        ArgumentCaptor<Runnable> requeued = ArgumentCaptor.forClass(Runnable.class);
+        verify(webhookDeliveryScheduler).requeueBusy(eq("merchant-a"), any(), eq(2L), requeued.capture());
+        verify(paymentMetrics).recordBusyRequeue(7L);
+        verify(paymentMetrics, never()).recordDeliveryAttempt(any(), any(), anyInt(), anyLong());
+        verify(webhookDeliveryScheduler, never()).submitRetry(any(), any(), anyLong(), any(), anyLong());
+        verifyNoInteractions(webhookDeliveryStats);
+
+        // Once a slot is free the same first attempt runs; its failure backs off by the first delay
+        permits.release();
+        when(logSampler.admitFailure(7L)).thenReturn(0L);
+        requeued.getValue().run();
+        verify(webhookDeliveryStats).recordAttempt(eq(7L), eq(false), anyLong());
+        verify(webhookDeliveryScheduler).submitRetry(eq("merchant-a"), any(), eq(2L), any(Runnable.class), eq(100L));
+        assertEquals(1, permits.availablePermits());
+    }
+}
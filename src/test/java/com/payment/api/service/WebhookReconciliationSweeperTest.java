@@ -0,0 +1,189 @@
+package com.payment.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.api.dto.PaymentDTO;
+import com.payment.api.entity.PaymentStatus;
+import com.payment.api.entity.Webhook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookReconciliationSweeperTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.parse("2026-02-01T10:00:00");
+    private static final LocalDateTime UNTIL = LocalDateTime.parse("2026-02-01T11:00:00");
+
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    private WebhookNotificationService webhookNotificationService;
+
+    @Mock
+    private PaymentMetrics paymentMetrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private JdbcTemplate jdbcTemplate;
+    private WebhookDeliveryLog deliveryLog;
+    private WebhookEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:reconcile;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE payment_events (" +
+            "id BIGINT PRIMARY KEY, tenant_id VARCHAR(64), payment_id BIGINT, event_type VARCHAR(40), " +
+            "payload VARCHAR(4000), created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE webhook_deliveries (" +
+            "payment_id BIGINT, webhook_id BIGINT, tenant_id VARCHAR(64), event_type VARCHAR(40), " +
+            "delivered_at TIMESTAMP, PRIMARY KEY (payment_id, webhook_id))");
+        deliveryLog = new WebhookDeliveryLog(jdbcTemplate);
+
+        Webhook webhook = new Webhook();
+        webhook.setId(7L);
+        webhook.setCreatedAt(LocalDateTime.parse("2026-01-01T00:00:00"));
+        endpoint = new WebhookEndpoint(webhook, 1000, 1000, 3, 100, 1, new Semaphore(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE payment_events");
+        jdbcTemplate.execute("DROP TABLE webhook_deliveries");
+    }
+
+    @Test
+    void reconcile_RequeuesOnlyMissingOrStaleDeliveriesAcrossBatches() {
+        // Arrange
+        insert(1, 1, PaymentStatus.CREATED, FROM.plusMinutes(1));
+        insert(2, 2, PaymentStatus.CAPTURED, FROM.plusMinutes(2));
+        insert(3, 3, PaymentStatus.CREATED, FROM.plusMinutes(2));
+        insert(4, 4, PaymentStatus.CREATED, FROM.plusMinutes(3));
+        insert(5, 5, PaymentStatus.CREATED, FROM.minusMinutes(1));
+        insert(6, 6, PaymentStatus.CREATED, UNTIL);
+        deliveryLog.recordDelivered("merchant-a", 1L, 7L, "PAYMENT_CREATED");
+        deliveryLog.recordDelivered("merchant-a", 2L, 7L, "PAYMENT_CREATED");
+        deliveryLog.recordDelivered("merchant-a", 2L, 7L, "PAYMENT_AUTHORIZED");
+        when(webhookService.getActiveEndpoints("merchant-a")).thenReturn(List.of(endpoint));
+        when(webhookNotificationService.redeliver(eq("merchant-a"), anyString(), any(), eq(endpoint))).thenReturn(true);
+
+        // Act
+        int redelivered = sweeper(2, 100).reconcile(FROM, UNTIL);
+
+        // Assert
+        assertEquals(3, redelivered);
+        ArgumentCaptor<PaymentDTO.Response> payments = ArgumentCaptor.forClass(PaymentDTO.Response.class);
+        verify(webhookNotificationService, times(3)).redeliver(eq("merchant-a"), anyString(), payments.capture(), eq(endpoint));
+        assertEquals(List.of(2L, 3L, 4L), payments.getAllValues().stream().map(PaymentDTO.Response::getId).toList());
+        verify(webhookNotificationService).redeliver(eq("merchant-a"), eq("PAYMENT_CAPTURED"), any(), eq(endpoint));
+        verify(paymentMetrics, times(3)).recordRedelivery("merchant-a");
+    }
+
+    @Test
+    void reconcile_StopsWhenRetryBudgetRefuses() {
+        // Arrange
+        insert(1, 1, PaymentStatus.CREATED, FROM.plusMinutes(1));
+        insert(2, 2, PaymentStatus.CREATED, FROM.plusMinutes(2));
+        when(webhookService.getActiveEndpoints("merchant-a")).thenReturn(List.of(endpoint));
+        when(webhookNotificationService.redeliver(eq("merchant-a"), anyString(), any(), eq(endpoint))).thenReturn(false);
+
+        // Act
+        int redelivered = sweeper(500, 100).reconcile(FROM, UNTIL);
+
+        // Assert
+        assertEquals(0, redelivered);
+        verify(webhookNotificationService, times(1)).redeliver(any(), any(), any(), any());
+        verifyNoInteractions(paymentMetrics);
+    }
+
+    @Test
+    void reconcile_RecentEventOfOldPaymentIsReconciled() {
+        // Arrange
+        insert(1, 1, PaymentStatus.CREATED, FROM.minusDays(3));
+        insert(2, 1, PaymentStatus.AUTHORIZED, FROM.minusDays(3));
+        insert(3, 1, PaymentStatus.CAPTURED, FROM.plusMinutes(5));
+        deliveryLog.recordDelivered("merchant-a", 1L, 7L, "PAYMENT_AUTHORIZED");
+        when(webhookService.getActiveEndpoints("merchant-a")).thenReturn(List.of(endpoint));
+        when(webhookNotificationService.redeliver(eq("merchant-a"), anyString(), any(), eq(endpoint))).thenReturn(true);
+
+        // Act
+        int redelivered = sweeper(500, 100).reconcile(FROM, UNTIL);
+
+        // Assert
+        assertEquals(1, redelivered);
+        ArgumentCaptor<PaymentDTO.Response> payment = ArgumentCaptor.forClass(PaymentDTO.Response.class);
+        verify(webhookNotificationService)
+            .redeliver(eq("merchant-a"), eq("PAYMENT_CAPTURED"), payment.capture(), eq(endpoint));
+        assertEquals(PaymentStatus.CAPTURED, payment.getValue().getStatus());
+    }
+
+    @Test
+    void reconcile_EarlierEventSkippedWhenLaterOneDelivered() {
+        // Arrange
+        insert(1, 1, PaymentStatus.CREATED, FROM.plusMinutes(1));
+        insert(2, 2, PaymentStatus.CREATED, FROM.plusMinutes(2));
+        insert(3, 2, PaymentStatus.AUTHORIZED, FROM.plusMinutes(3));
+        deliveryLog.recordDelivered("merchant-a", 1L, 7L, "PAYMENT_CAPTURED");
+        deliveryLog.recordDelivered("merchant-a", 2L, 7L, "PAYMENT_AUTHORIZED");
+        when(webhookService.getActiveEndpoints("merchant-a")).thenReturn(List.of(endpoint));
+
+        // Act
+        int redelivered = sweeper(500, 100).reconcile(FROM, UNTIL);
+
+        // Assert
+        assertEquals(0, redelivered);
+        verifyNoInteractions(webhookNotificationService);
+    }
+
+    @Test
+    void pruneDeliveredBefore_DeletesOnlyOlderRecordsInBatches() {
+        // Arrange
+        for (long paymentId = 1; paymentId <= 5; paymentId++) {
+            jdbcTemplate.update("INSERT INTO webhook_deliveries VALUES (?, 7, 'merchant-a', 'PAYMENT_CREATED', ?)",
+                paymentId, Timestamp.valueOf(FROM.minusMinutes(paymentId)));
+        }
+        deliveryLog.recordDelivered("merchant-a", 6L, 7L, "PAYMENT_CREATED");
+
+        // Act
+        int pruned = sweeper(2, 100).pruneDeliveredBefore(FROM);
+
+        // Assert
+        assertEquals(5, pruned);
+        assertEquals(List.of(6L),
+            jdbcTemplate.queryForList("SELECT payment_id FROM webhook_deliveries", Long.class));
+    }
+
+    private WebhookReconciliationSweeper sweeper(int batchSize, int maxRedeliveriesPerRun) {
+        return new WebhookReconciliationSweeper(jdbcTemplate, objectMapper, deliveryLog, webhookService, webhookNotificationService,
+            paymentMetrics, true, 60, 120_000, batchSize, maxRedeliveriesPerRun);
+    }
+
+    private void insert(long eventId, long paymentId, PaymentStatus status, LocalDateTime createdAt) {
+        PaymentDTO.Response payment = new PaymentDTO.Response(
+            paymentId, "John", "Doe", "12345", "****0366", status, LocalDateTime.parse("2026-01-15T09:00:00"));
+        try {
+            jdbcTemplate.update("INSERT INTO payment_events VALUES (?, 'merchant-a', ?, ?, ?, ?)",
+                eventId, paymentId, status.eventType(), objectMapper.writeValueAsString(payment),
+                Timestamp.valueOf(createdAt));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.payment.api.service;
+
+import com.payment.api.dto.WebhookDTO;
+import com.payment.api.entity.Webhook;
+import com.payment.api.repository.WebhookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookServiceTest {
+
+    @Mock
+    private WebhookRepository webhookRepository;
+
+    @Mock
+    private WebhookDeliveryStats webhookDeliveryStats;
+
+    @InjectMocks
+    private WebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(webhookService, "defaultMaxRetryAttempts", 3);
+        ReflectionTestUtils.setField(webhookService, "defaultInitialRetryDelay", 5000);
+        ReflectionTestUtils.setField(webhookService, "defaultConnectTimeout", 5000);
+        ReflectionTestUtils.setField(webhookService, "defaultReadTimeout", 10000);
+        ReflectionTestUtils.setField(webhookService, "defaultMaxConcurrency", 10);
+    }
+
+    @Test
+    void createWebhook_StoresPolicyAndReportsEffectiveValues() {
+        // Arrange
+        WebhookDTO.CreateRequest request = new WebhookDTO.CreateRequest(
+            "https://partner.example.com/hook", "Fast partner", 500, 200, 2, null, null);
+        when(webhookRepository.save(any(Webhook.class))).thenAnswer(invocation -> {
+            Webhook webhook = invocation.getArgument(0);
+            webhook.setId(1L);
+            return webhook;
+        });
+
+        // Act
+        WebhookDTO.Response response = webhookService.createWebhook("merchant-a", request);
+
+        // Assert
+        ArgumentCaptor<Webhook> captor = ArgumentCaptor.forClass(Webhook.class);
+        verify(webhookRepository).save(captor.capture());
+        assertEquals("merchant-a", captor.getValue().getTenantId());
+        assertEquals(200, captor.getValue().getReadTimeoutMs());
+        assertNull(captor.getValue().getInitialRetryDelayMs());
+        assertEquals("merchant-a", response.getTenantId());
+        assertEquals(500, response.getConnectTimeoutMs());
+        assertEquals(200, response.getReadTimeoutMs());
+        assertEquals(2, response.getMaxRetryAttempts());
+        assertEquals(5000, response.getInitialRetryDelayMs());
+        assertEquals(10, response.getMaxConcurrency());
+    }
+
+    @Test
+    void getActiveEndpoints_CachedUntilWebhookDeleted() {
+        // Arrange
+        when(webhookRepository.findByActiveTrue()).thenReturn(List.of(webhook(1L, 200, 4)));
+        Webhook stored = new Webhook();
+        stored.setId(1L);
+        when(webhookRepository.findByIdAndTenantId(1L, "default")).thenReturn(Optional.of(stored));
+
+        // Act
+        List<WebhookEndpoint> first = webhookService.getActiveEndpoints("default");
+        List<WebhookEndpoint> second = webhookService.getActiveEndpoints("default");
+        webhookService.deleteWebhook("default", 1L);
+        webhookService.getActiveEndpoints("default");
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(200, first.get(0).getReadTimeout());
+        assertEquals(5000, first.get(0).getConnectTimeout());
+        assertEquals(4, first.get(0).getMaxConcurrency());
+        verify(webhookRepository, times(2)).findByActiveTrue();
+        verify(webhookRepository).delete(stored);
+        verify(webhookDeliveryStats).remove(1L);
+    }
+
+    @Test
+    void getActiveEndpoints_OnlyReturnsTenantsOwnWebhooks() {
+        // Arrange
+        Webhook other = webhook(2L, null, null);
+        other.setTenantId("merchant-b");
+        when(webhookRepository.findByActiveTrue()).thenReturn(List.of(webhook(1L, null, null), other));
+
+        // Act
+        List<WebhookEndpoint> defaultEndpoints = webhookService.getActiveEndpoints("default");
+        List<WebhookEndpoint> otherEndpoints = webhookService.getActiveEndpoints("merchant-b");
+        List<WebhookEndpoint> unknownEndpoints = webhookService.getActiveEndpoints("merchant-c");
+
+        // Assert
+        assertEquals(1L, defaultEndpoints.get(0).getId());
+        assertEquals(1, defaultEndpoints.size());
+        assertEquals(2L, otherEndpoints.get(0).getId());
+        assertTrue(unknownEndpoints.isEmpty());
+    }
+
+    @Test
+    void deleteWebhook_OtherTenantsWebhook_ReportedAsNotFound() {
+        // Arrange
+        when(webhookRepository.findByIdAndTenantId(1L, "merchant-b")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> webhookService.deleteWebhook("merchant-b", 1L));
+        verify(webhookRepository, never()).delete(any(Webhook.class));
+        verify(webhookDeliveryStats, never()).remove(any());
+    }
+
+    @Test
+    void getWebhookStats_UnknownWebhook_ThrowsNotFound() {
+        // Arrange
+        when(webhookRepository.findByIdAndTenantId(99L, "merchant-a")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> webhookService.getWebhookStats("merchant-a", 99L));
+        verifyNoInteractions(webhookDeliveryStats);
+    }
+
+    @Test
+    void getWebhookStats_OtherTenantsWebhook_ThrowsNotFound() {
+        // Arrange
+        when(webhookRepository.findByIdAndTenantId(1L, "merchant-b")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> webhookService.getWebhookStats("merchant-b", 1L));
+        verifyNoInteractions(webhookDeliveryStats);
+    }
+
+    @Test
+    void refreshActiveEndpoints_InFlightDeliveriesKeepCountingAgainstLimit() throws Exception {
+        // Arrange
+        Webhook webhook = webhook(1L, 100, 1);
+        webhook.setConnectTimeoutMs(100);
+        when(webhookRepository.findByActiveTrue()).thenReturn(List.of(webhook));
+        WebhookEndpoint before = webhookService.getActiveEndpoints("default").get(0);
+        assertTrue(before.tryAcquire());
+
+        // Act
+        WebhookEndpoint after = webhookService.refreshActiveEndpoints().get("default").get(0);
+
+        // Assert
+        assertNotSame(before, after);
+        assertFalse(after.tryAcquire());
+        before.release();
+        assertTrue(after.tryAcquire());
+    }
+
+    private static Webhook webhook(Long id, Integer readTimeoutMs, Integer maxConcurrency) {
+        Webhook webhook = new Webhook();
+        webhook.setId(id);
+        webhook.setUrl("https://partner.example.com/hook");
+        webhook.setActive(true);
+        webhook.setReadTimeoutMs(readTimeoutMs);
+        webhook.setMaxConcurrency(maxConcurrency);
+        return webhook;
+    }
+}
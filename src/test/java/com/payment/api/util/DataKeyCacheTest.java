@@ -0,0 +1,109 @@
+package com.payment.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataKeyCacheTest {
+
+    private CountingKeyProvider keyProvider;
+
+    @BeforeEach
+    void setUp() {
+        keyProvider = new CountingKeyProvider();
+    }
+
+    @Test
+    void currentKey_ReusedUntilUsageLimit() {
+        // Arrange
+        DataKeyCache cache = new DataKeyCache(keyProvider, 60_000, 10, 100);
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            cache.currentKey();
+        }
+
+        // Assert
+        assertEquals(3, keyProvider.generated.get());
+    }
+
+    @Test
+    void currentKey_RotatedAfterTtl() throws Exception {
+        // Arrange
+        DataKeyCache cache = new DataKeyCache(keyProvider, 1, 1_000, 100);
+        String first = cache.currentKey().getWrappedKey();
+
+        // Act
+        Thread.sleep(5);
+        String second = cache.currentKey().getWrappedKey();
+
+        // Assert
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void unwrap_KeysWrittenLocallyNeverReachProvider() {
+        // Arrange
+        DataKeyCache cache = new DataKeyCache(keyProvider, 60_000, 1_000, 100);
+        DataKeyCache.CachedKey key = cache.currentKey();
+
+        // Act
+        SecretKeySpec unwrapped = cache.unwrap(key.getWrappedKey());
+
+        // Assert
+        assertEquals(key.getKey(), unwrapped);
+        assertEquals(0, keyProvider.unwrapped.get());
+        assertEquals(1, cache.getProviderCalls());
+    }
+
+    @Test
+    void unwrap_CachesForeignKeysAndStaysBounded() {
+        // Arrange
+        DataKeyCache writer = new DataKeyCache(keyProvider, 60_000, 1, 100);
+        String[] wrapped = new String[5];
+        for (int i = 0; i < wrapped.length; i++) {
+            wrapped[i] = writer.currentKey().getWrappedKey();
+        }
+        DataKeyCache reader = new DataKeyCache(keyProvider, 60_000, 1_000, 3);
+
+        // Act
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 3; i++) {
+                reader.unwrap(wrapped[i]);
+            }
+        }
+        for (String key : wrapped) {
+            reader.unwrap(key);
+        }
+
+        // Assert - three misses, three hits, then two new keys evict two entries
+        assertEquals(5, keyProvider.unwrapped.get());
+    }
+
+    /**
+     * Test provider whose "wrapping" is the identity; only call counts matter here
+     */
+    private static class CountingKeyProvider implements KeyProvider {
+
+        final AtomicInteger generated = new AtomicInteger();
+        final AtomicInteger unwrapped = new AtomicInteger();
+
+        @Override
+        public DataKey generateDataKey() {
+            byte[] key = new byte[32];
+            Arrays.fill(key, (byte) generated.incrementAndGet());
+            return new DataKey(key, key.clone());
+        }
+
+        @Override
+        public byte[] decryptDataKey(byte[] wrappedKey) {
+            unwrapped.incrementAndGet();
+            return wrappedKey.clone();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.payment.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeficitRoundRobinQueueTest {
+
+    @Test
+    void poll_BackloggedKeysShareByWeight() {
+        // Arrange
+        Map<String, Integer> weights = Map.of("a", 3, "b", 1);
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(weights::get, 100);
+        for (int i = 0; i < 8; i++) {
+            queue.offer("a", "a" + i);
+            queue.offer("b", "b" + i);
+        }
+
+        // Act
+        List<String> firstEight = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            firstEight.add(queue.poll());
+        }
+
+        // Assert
+        assertEquals(List.of("a0", "a1", "a2", "b0", "a3", "a4", "a5", "b1"), firstEight);
+        assertEquals(8, queue.size());
+    }
+
+    @Test
+    void poll_LoneKeyTakesEverything() {
+        // Arrange
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(key -> 1, 100);
+        queue.offer("a", "a0");
+        queue.offer("b", "b0");
+        queue.offer("b", "b1");
+        queue.offer("b", "b2");
+
+        // Act
+        List<String> polled = new ArrayList<>();
+        for (String item = queue.poll(); item != null; item = queue.poll()) {
+            polled.add(item);
+        }
+
+        // Assert
+        assertEquals(List.of("a0", "b0", "b1", "b2"), polled);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void offer_FullKeyRefusedWithoutAffectingOthers() {
+        // Arrange
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(key -> 1, 2);
+
+        // Act
+        boolean first = queue.offer("a", "a0");
+        boolean second = queue.offer("a", "a1");
+        boolean third = queue.offer("a", "a2");
+        boolean other = queue.offer("b", "b0");
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(other);
+        assertEquals(2, queue.size("a"));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void poll_EmptiedKeyRejoinsAtTheBack() {
+        // Arrange
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(key -> 1, 100);
+        queue.offer("a", "a0");
+        queue.offer("b", "b0");
+        queue.offer("b", "b1");
+        assertEquals("a0", queue.poll());
+
+        // Act
+        queue.offer("a", "a1");
+
+        // Assert
+        assertEquals(0, queue.size("c"));
+        assertEquals("b0", queue.poll());
+        assertEquals("a1", queue.poll());
+        assertEquals("b1", queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void offer_SameCoalescingKeyReplacesQueuedItemInPlace() {
+        // Arrange
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(key -> 1, 2);
+        queue.offer("a", "payment-1", "created");
+        queue.offer("a", "payment-2", "other");
+
+        // Act
+        DeficitRoundRobinQueue.Offer authorized = queue.offer("a", "payment-1", "authorized");
+        DeficitRoundRobinQueue.Offer captured = queue.offer("a", "payment-1", "captured");
+        DeficitRoundRobinQueue.Offer uncoalesced = queue.offer("a", null, "extra");
+
+        // Assert
+        assertEquals(DeficitRoundRobinQueue.Offer.REPLACED, authorized);
+        assertEquals(DeficitRoundRobinQueue.Offer.REPLACED, captured);
+        assertEquals(DeficitRoundRobinQueue.Offer.REFUSED, uncoalesced);
+        assertEquals(2, queue.size());
+        assertEquals("captured", queue.poll());
+        assertEquals("other", queue.poll());
+    }
+
+    @Test
+    void offer_CoalescingKeyQueuesAgainOncePolled() {
+        // Arrange
+        DeficitRoundRobinQueue<String> queue = new DeficitRoundRobinQueue<>(key -> 1, 10);
+        queue.offer("a", "payment-1", "created");
+        assertEquals("created", queue.poll());
+
+        // Act
+        DeficitRoundRobinQueue.Offer offer = queue.offer("a", "payment-1", "authorized");
+
+        // Assert
+        assertEquals(DeficitRoundRobinQueue.Offer.QUEUED, offer);
+        assertEquals("authorized", queue.poll());
+        assertNull(queue.poll());
+    }
+}
@@ -2,8 +2,23 @@ package com.payment.api.util;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class EncryptionUtilTest {
@@ -51,6 +66,138 @@ class EncryptionUtilTest {
         }
     }
 
+    @Test
+    void encrypt_UsesVersionedGcmFormat() {
+        // Act
+        String first = encryptionUtil.encrypt(CARD_NUMBER);
+        String second = encryptionUtil.encrypt(CARD_NUMBER);
+
+        // Assert
+        assertTrue(first.startsWith("v1:"));
+        assertNotEquals(first, second); // random IV per value
+        assertFalse(encryptionUtil.needsReEncryption(first));
+    }
+
+    @Test
+    void decrypt_LegacyUnversionedValue() throws Exception {
+        // Arrange - AES/ECB under the first 128 bits of SHA-256(secret), as written before key versioning
+        byte[] key = Arrays.copyOf(
+            MessageDigest.getInstance("SHA-256").digest(SECRET_KEY.getBytes(StandardCharsets.UTF_8)), 16);
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+        String legacy = Base64.getEncoder().encodeToString(cipher.doFinal(CARD_NUMBER.getBytes(StandardCharsets.UTF_8)));
+
+        // Act & Assert
+        assertEquals(CARD_NUMBER, encryptionUtil.decrypt(legacy));
+        assertTrue(encryptionUtil.needsReEncryption(legacy));
+    }
+
+    @Test
+    void keyRotation_OldVersionStillDecryptsAndIsReEncrypted() {
+        // Arrange
+        ReflectionTestUtils.setField(encryptionUtil, "keys", "1:firstSecret,2:secondSecret");
+        ReflectionTestUtils.setField(encryptionUtil, "activeKeyId", "1");
+        String underOldKey = encryptionUtil.encrypt(CARD_NUMBER);
+
+        EncryptionUtil rotated = new EncryptionUtil();
+        ReflectionTestUtils.setField(rotated, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(rotated, "keys", "1:firstSecret,2:secondSecret");
+        ReflectionTestUtils.setField(rotated, "activeKeyId", "2");
+
+        // Act
+        String reEncrypted = rotated.reEncrypt(underOldKey);
+
+        // Assert
+        assertTrue(rotated.needsReEncryption(underOldKey));
+        assertEquals(CARD_NUMBER, rotated.decrypt(underOldKey));
+        assertTrue(reEncrypted.startsWith("v2:"));
+        assertEquals(CARD_NUMBER, rotated.decrypt(reEncrypted));
+    }
+
+    @Test
+    void envelopeEncryption_RoundTripsAndReadsOlderFormats(@TempDir Path tempDir) {
+        // Arrange
+        String versioned = encryptionUtil.encrypt(CARD_NUMBER);
+        EncryptionUtil envelope = new EncryptionUtil();
+        ReflectionTestUtils.setField(envelope, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(envelope, "keyProvider",
+            new LocalFileKeyProvider(tempDir.resolve("master.key").toString()));
+        ReflectionTestUtils.setField(envelope, "dataKeyTtlSeconds", 3600L);
+        ReflectionTestUtils.setField(envelope, "dataKeyMaxUses", 1000L);
+        ReflectionTestUtils.setField(envelope, "dataKeyCacheSize", 10);
+
+        // Act
+        String encrypted = envelope.encrypt(CARD_NUMBER);
+
+        // Assert
+        assertTrue(encrypted.startsWith("e:"));
+        assertEquals(CARD_NUMBER, envelope.decrypt(encrypted));
+        assertEquals(CARD_NUMBER, envelope.decrypt(versioned));
+        assertTrue(envelope.needsReEncryption(versioned));
+        assertFalse(envelope.needsReEncryption(encrypted));
+    }
+
+    @Test
+    void decrypt_UnknownKeyVersion_Throws() {
+        assertThrows(RuntimeException.class, () -> encryptionUtil.decrypt("v9:AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"));
+    }
+
+    @Test
+    void decrypt_InvalidInput_ThrowsAndRecovers() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> encryptionUtil.decrypt("bm90LWNpcGhlcnRleHQ="));
+        assertEquals(CARD_NUMBER, encryptionUtil.decrypt(encryptionUtil.encrypt(CARD_NUMBER)));
+    }
+
+    @Test
+    void encryptDecrypt_ConcurrentThreads() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String cardNumber = "45320151128303" + String.format("%02d", i);
+            tasks.add(() -> cardNumber.equals(encryptionUtil.decrypt(encryptionUtil.encrypt(cardNumber))));
+        }
+
+        // Act & Assert
+        try {
+            for (Future<Boolean> result : pool.invokeAll(tasks)) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void fingerprint_IsStableHexAndIndependentOfEncryptionKeys() {
+        // Arrange
+        EncryptionUtil rotated = new EncryptionUtil();
+        ReflectionTestUtils.setField(rotated, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(rotated, "keys", "1:firstSecret,2:secondSecret");
+        ReflectionTestUtils.setField(rotated, "activeKeyId", "2");
+
+        // Act
+        String fingerprint = encryptionUtil.fingerprint(CARD_NUMBER);
+
+        // Assert
+        assertTrue(fingerprint.matches("[0-9a-f]{64}"));
+        assertEquals(fingerprint, encryptionUtil.fingerprint(CARD_NUMBER));
+        assertEquals(fingerprint, rotated.fingerprint(CARD_NUMBER));
+        assertNotEquals(fingerprint, encryptionUtil.fingerprint("4111111111111111"));
+    }
+
+    @Test
+    void fingerprint_DependsOnFingerprintKey() {
+        // Arrange
+        EncryptionUtil otherKey = new EncryptionUtil();
+        ReflectionTestUtils.setField(otherKey, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(otherKey, "fingerprintKey", "AnotherFingerprintKey");
+
+        // Act & Assert
+        assertNotEquals(encryptionUtil.fingerprint(CARD_NUMBER), otherKey.fingerprint(CARD_NUMBER));
+    }
+
     @Test
     void maskCardNumber_ShowsLastFourDigits() {
         // Act
@@ -0,0 +1,52 @@
+package com.payment.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void sampleSuccess_LogsOneInRate() {
+        // Arrange
+        LogSampler sampler = new LogSampler(10, 5, 60_000, nanos::get);
+
+        // Act
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.sampleSuccess()) {
+                sampled++;
+            }
+        }
+
+        // Assert
+        assertEquals(10, sampled);
+    }
+
+    @Test
+    void admitFailure_CapsLinesPerKeyAndReportsSuppressedCount() {
+        // Arrange
+        LogSampler sampler = new LogSampler(1, 2, 60_000, nanos::get);
+        List<Long> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            results.add(sampler.admitFailure(1L));
+        }
+        long otherKey = sampler.admitFailure(2L);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        long nextWindow = sampler.admitFailure(1L);
+
+        // Assert
+        assertEquals(List.of(0L, 0L, -1L, -1L, -1L), results);
+        assertEquals(0, otherKey);
+        assertEquals(3, nextWindow);
+    }
+}
@@ -0,0 +1,129 @@
+package com.payment.api.util;
+
+import com.payment.api.dto.PaymentDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentRequestValidatorTest {
+
+    private static final String VALID_CARD = "4532015112830366";
+
+    private static ValidatorFactory validatorFactory;
+    private static SpringValidatorAdapter beanValidator;
+
+    private final PaymentRequestValidator validator = new PaymentRequestValidator();
+
+    @BeforeAll
+    static void setUpBeanValidation() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = new SpringValidatorAdapter(validatorFactory.getValidator());
+    }
+
+    @AfterAll
+    static void tearDownBeanValidation() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validate_ValidRequest_NoErrors() {
+        // Act
+        Errors errors = validate(validator,
+            new PaymentDTO.CreateRequest("Mary-Jane", "O'Brien", "12345-6789", VALID_CARD));
+
+        // Assert
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    void validate_MatchesBeanValidationMessages() {
+        // Arrange
+        String[] names = {null, "", "   ", "\t", "John", "Mary Jane", "O'Brien", "John123", "J\u00f6hn", "A".repeat(100),
+            "A".repeat(101), "1".repeat(101), "Jo\nhn", " "};
+        String[] zipCodes = {null, "", " ", "12345", "12345-6789", "1234", "123456", "12345-678", "12345 6789",
+            "ABCDE", "12345\n", "\u0661\u0662\u0663\u0664\u0665"};
+        String[] cardNumbers = {null, "", "  ", VALID_CARD, "4111111111111111", "123", "1234567890123456789",
+            "12345678901234567890", "4532-0151-1283-0366", "453201511283036a", "4532015112830366\n"};
+
+        // Act & Assert
+        for (String name : names) {
+            assertSameErrors(new PaymentDTO.CreateRequest(name, "Doe", "12345", VALID_CARD));
+            assertSameErrors(new PaymentDTO.CreateRequest("John", name, "12345", VALID_CARD));
+        }
+        for (String zipCode : zipCodes) {
+            assertSameErrors(new PaymentDTO.CreateRequest("John", "Doe", zipCode, VALID_CARD));
+        }
+        for (String cardNumber : cardNumbers) {
+            assertSameErrors(new PaymentDTO.CreateRequest("John", "Doe", "12345", cardNumber));
+        }
+        assertSameErrors(new PaymentDTO.CreateRequest(null, "", "ABCDE", "123"));
+    }
+
+    @Test
+    void validate_CardFailingLuhn_Rejected() {
+        // Act
+        Errors errors = validate(validator,
+            new PaymentDTO.CreateRequest("John", "Doe", "12345", "4532015112830367"));
+
+        // Assert
+        assertEquals(List.of("cardNumber: " + PaymentRequestValidator.LUHN_MESSAGE), messages(errors));
+    }
+
+    @Test
+    void passesLuhn_KnownNumbers() {
+        // Assert
+        assertTrue(PaymentRequestValidator.passesLuhn("4111111111111111"));
+        assertTrue(PaymentRequestValidator.passesLuhn("378282246310005"));
+        assertTrue(PaymentRequestValidator.passesLuhn("6011111111111117"));
+        assertFalse(PaymentRequestValidator.passesLuhn("4111111111111112"));
+        assertFalse(PaymentRequestValidator.passesLuhn("1234567890123"));
+    }
+
+    @Test
+    void supports_OnlyCreateRequest() {
+        // Assert
+        assertTrue(validator.supports(PaymentDTO.CreateRequest.class));
+        assertFalse(validator.supports(PaymentDTO.CardLookupRequest.class));
+    }
+
+    /**
+     * Bean Validation reports violations in no particular order, so compare as sets. The Luhn
+     * check has no annotation counterpart and is left out of the comparison.
+     */
+    private void assertSameErrors(PaymentDTO.CreateRequest request) {
+        Set<String> expected = new HashSet<>(messages(validate(beanValidator, request)));
+        Set<String> actual = new HashSet<>(messages(validate(validator, request)));
+        actual.remove("cardNumber: " + PaymentRequestValidator.LUHN_MESSAGE);
+        assertEquals(expected, actual, () -> "Mismatch for " + Arrays.asList(request.getFirstName(),
+            request.getLastName(), request.getZipCode(), request.getCardNumber()));
+    }
+
+    private static Errors validate(Validator target, PaymentDTO.CreateRequest request) {
+        Errors errors = new BeanPropertyBindingResult(request, "createRequest");
+        target.validate(request, errors);
+        return errors;
+    }
+
+    private static List<String> messages(Errors errors) {
+        List<String> messages = new ArrayList<>();
+        for (FieldError error : errors.getFieldErrors()) {
+            messages.add(error.getField() + ": " + error.getDefaultMessage());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,54 @@
+package com.payment.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void tryWithdraw_RetriesCappedAtRatioOfFirstAttempts() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(0.1, 0, 10, nanos::get);
+        while (budget.tryWithdraw()) {
+            // Drain the initial burst
+        }
+
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+            if (budget.tryWithdraw()) {
+                allowed++;
+            }
+        }
+
+        // Assert
+        assertEquals(10, allowed, 1);
+    }
+
+    @Test
+    void tryWithdraw_RefillsOverTimeUpToMaxTokens() {
+        // Arrange
+        RetryBudget budget = new RetryBudget(0.1, 2, 5, nanos::get);
+        while (budget.tryWithdraw()) {
+            // Drain the initial burst
+        }
+
+        // Act
+        nanos.addAndGet(1_000_000_000L);
+        int afterOneSecond = 0;
+        while (budget.tryWithdraw()) {
+            afterOneSecond++;
+        }
+        nanos.addAndGet(60_000_000_000L);
+
+        // Assert
+        assertEquals(2, afterOneSecond);
+        assertEquals(5.0, budget.getTokens());
+    }
+}
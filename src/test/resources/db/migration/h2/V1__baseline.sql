@@ -0,0 +1,76 @@
+-- H2 twin of db/migration/mysql/V1__baseline.sql, used when the prod profile runs against H2
+-- (StartupBenchmark). Keep the two in step.
+
+CREATE TABLE payments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id VARCHAR(64) DEFAULT 'default' NOT NULL,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    zip_code VARCHAR(20) NOT NULL,
+    search_key VARCHAR(100),
+    card_number_encrypted VARCHAR(500) NOT NULL,
+    card_number_masked VARCHAR(20) NOT NULL,
+    card_fingerprint VARCHAR(64),
+    status VARCHAR(20) DEFAULT 'CREATED' NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_created_at ON payments (created_at);
+CREATE INDEX idx_card_fingerprint ON payments (card_fingerprint);
+CREATE INDEX idx_tenant_created_at ON payments (tenant_id, created_at);
+CREATE INDEX idx_tenant_search_created ON payments (tenant_id, search_key, created_at, id, zip_code);
+
+CREATE TABLE payments_archive (
+    id BIGINT PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    zip_code VARCHAR(20) NOT NULL,
+    card_number_encrypted VARCHAR(500) NOT NULL,
+    card_number_masked VARCHAR(20) NOT NULL,
+    card_fingerprint VARCHAR(64),
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_archive_created_at ON payments_archive (created_at);
+
+CREATE TABLE webhooks (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id VARCHAR(64) DEFAULT 'default' NOT NULL,
+    url VARCHAR(500) NOT NULL,
+    description VARCHAR(255),
+    active BOOLEAN NOT NULL,
+    connect_timeout_ms INTEGER,
+    read_timeout_ms INTEGER,
+    max_retry_attempts INTEGER,
+    initial_retry_delay_ms INTEGER,
+    max_concurrency INTEGER,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE payment_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL,
+    payment_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload VARCHAR(1000000) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_events_tenant_id ON payment_events (tenant_id, id);
+
+CREATE TABLE payment_rollups (
+    tenant_id VARCHAR(64) NOT NULL,
+    bucket_hour TIMESTAMP NOT NULL,
+    zip_prefix VARCHAR(5) NOT NULL,
+    payment_count BIGINT NOT NULL,
+    PRIMARY KEY (tenant_id, bucket_hour, zip_prefix)
+);
+
+CREATE TABLE webhook_deliveries (
+    payment_id BIGINT NOT NULL,
+    webhook_id BIGINT NOT NULL,
+    tenant_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    delivered_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (payment_id, webhook_id)
+);
@@ -0,0 +1,3 @@
+-- IF NOT EXISTS: databases created by ddl-auto=update already have these indexes (see the MySQL script)
+CREATE INDEX IF NOT EXISTS idx_events_created_at ON payment_events (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_deliveries_delivered_at ON webhook_deliveries (delivered_at);
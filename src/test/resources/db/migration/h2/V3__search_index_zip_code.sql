@@ -0,0 +1,3 @@
+-- Rebuilt unconditionally; see the MySQL script
+DROP INDEX IF EXISTS idx_tenant_search_created;
+CREATE INDEX idx_tenant_search_created ON payments (tenant_id, search_key, created_at, id, zip_code);